@@ -0,0 +1,18 @@
+package chess.bench;
+
+/**
+ * The positions the benchmarks are run over, as FEN.
+ */
+public final class BenchmarkPositions {
+
+    // Middlegame positions, with many pieces and pins.
+    public static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    public static final String ITALIAN = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    // Endgame positions, with few pieces and long king walks.
+    public static final String ROOK_ENDGAME = "8/5pk1/6p1/8/3R4/6P1/5PK1/3r4 w - - 0 1";
+    public static final String PAWN_ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private BenchmarkPositions() {
+    }
+}
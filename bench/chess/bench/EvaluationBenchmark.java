@@ -0,0 +1,39 @@
+package chess.bench;
+
+import chess.Position;
+import chess.search.Evaluator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the static evaluation of a position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    @Param({BenchmarkPositions.KIWIPETE, BenchmarkPositions.ITALIAN, BenchmarkPositions.ROOK_ENDGAME, BenchmarkPositions.PAWN_ENDGAME})
+    public String fen;
+
+    private Position position; // The position to evaluate.
+    private Evaluator evaluator; // The evaluator to measure.
+
+    @Setup
+    public void setup() {
+        position = new Position(fen);
+        evaluator = new Evaluator();
+    }
+
+    /**
+     * Scores the position for the side to move.
+     */
+    @Benchmark
+    public int evaluate() {
+        return evaluator.evaluate(position, position.isWhiteToMove());
+    }
+}
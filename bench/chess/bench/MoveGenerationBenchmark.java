@@ -0,0 +1,61 @@
+package chess.bench;
+
+import chess.Position;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures legal move generation, make/unmake and check detection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({BenchmarkPositions.KIWIPETE, BenchmarkPositions.ITALIAN, BenchmarkPositions.ROOK_ENDGAME, BenchmarkPositions.PAWN_ENDGAME})
+    public String fen;
+
+    private Position position; // The position to measure.
+    private int[] moves; // The legal moves of the position.
+    private int count; // The number of legal moves.
+
+    @Setup
+    public void setup() {
+        position = new Position(fen);
+        moves = new int[Position.MAX_MOVES];
+        count = position.generateMoves(moves, 0);
+    }
+
+    /**
+     * Generates the legal moves of the side to move.
+     */
+    @Benchmark
+    public int generateMoves() {
+        return position.generateMoves(moves, 0);
+    }
+
+    /**
+     * Plays and undoes every legal move of the position.
+     */
+    @Benchmark
+    public void makeUndo(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            blackhole.consume(position.getHash());
+            position.undoMove();
+        }
+    }
+
+    /**
+     * Checks whether the side to move is in check.
+     */
+    @Benchmark
+    public boolean inCheck() {
+        return position.inCheck(position.isWhiteToMove());
+    }
+}
@@ -0,0 +1,61 @@
+package chess.bench;
+
+import chess.Position;
+import chess.search.Searcher;
+import chess.search.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a fixed-depth search from an empty transposition table. The searcher is cleared before each search, so no
+ * invocation starts with the evaluation caches, history or counter moves of an earlier one, and it is only created once
+ * so its buffers aren't counted as allocations of the search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private static final int TABLE_SIZE = 16; // The memory of the transposition table, in megabytes.
+
+    @Param({BenchmarkPositions.KIWIPETE, BenchmarkPositions.ITALIAN, BenchmarkPositions.ROOK_ENDGAME, BenchmarkPositions.PAWN_ENDGAME})
+    public String fen;
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean selective; // Whether null move pruning, late move reductions and futility pruning are on.
+
+    private Position position; // The position to search.
+    private TranspositionTable table; // The table of the search, cleared before each search.
+    private Searcher searcher; // The searcher to measure, cleared before each search.
+
+    @Setup
+    public void setup() {
+        position = new Position(fen);
+        table = new TranspositionTable(TABLE_SIZE);
+        searcher = new Searcher(table);
+        searcher.setNullMovePruning(selective);
+        searcher.setLateMoveReductions(selective);
+        searcher.setFutilityPruning(selective);
+    }
+
+    @Setup(Level.Invocation)
+    public void clear() {
+        table.clear();
+        searcher.clear();
+    }
+
+    /**
+     * Searches the position to the fixed depth.
+     */
+    @Benchmark
+    public int search() {
+        return searcher.search(position, depth);
+    }
+}
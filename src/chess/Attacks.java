@@ -0,0 +1,277 @@
+package chess;
+
+/**
+ * Precomputed attack tables for every piece. The attacks of a rook or bishop on a square only depend on the pieces on
+ * its rays, so every blocker arrangement is looked up through a magic multiplication into a table built once at
+ * startup.
+ */
+public final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}}; // The rays a rook moves along.
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}}; // The rays a bishop moves along.
+    private static final int[][] KNIGHT_STEPS = {{1, 2}, {1, -2}, {2, 1}, {2, -1}, {-1, 2}, {-1, -2}, {-2, 1}, {-2, -1}}; // The jumps of a knight.
+    private static final int[][] KING_STEPS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, 1}, {1, 1}, {1, 0}, {1, -1}, {0, -1}}; // The steps of a king.
+    private static final int[][] WHITE_PAWN_STEPS = {{-1, 1}, {1, 1}}; // The captures of a white pawn.
+    private static final int[][] BLACK_PAWN_STEPS = {{-1, -1}, {1, -1}}; // The captures of a black pawn.
+
+    private static final long[] KNIGHT = new long[64]; // Knight attacks from each square.
+    private static final long[] KING = new long[64]; // King attacks from each square.
+    private static final long[][] PAWN = new long[2][64]; // Attacks of a white (0) and black (1) pawn from each square.
+
+    private static final long[][] BETWEEN = new long[64][64]; // Tiles strictly between two squares on a shared line.
+    private static final long[][] LINE = new long[64][64]; // The whole line through two squares, edge to edge.
+
+    private static final long[] ROOK_MASKS = new long[64]; // Tiles that can block a rook on each square.
+    private static final long[] ROOK_MAGICS = new long[64]; // Magic multiplier for a rook on each square.
+    private static final int[] ROOK_SHIFTS = new int[64]; // Shift applied after the magic multiplication.
+    private static final long[][] ROOK_TABLES = new long[64][]; // Rook attacks indexed by magic index.
+
+    private static final long[] BISHOP_MASKS = new long[64]; // Tiles that can block a bishop on each square.
+    private static final long[] BISHOP_MAGICS = new long[64]; // Magic multiplier for a bishop on each square.
+    private static final int[] BISHOP_SHIFTS = new int[64]; // Shift applied after the magic multiplication.
+    private static final long[][] BISHOP_TABLES = new long[64][]; // Bishop attacks indexed by magic index.
+
+    private static long seed = 0x9E3779B97F4A7C15L; // State of the random generator used to search for magics.
+
+    // Build the tables.
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = getStepAttacks(square, KNIGHT_STEPS);
+            KING[square] = getStepAttacks(square, KING_STEPS);
+            PAWN[0][square] = getStepAttacks(square, WHITE_PAWN_STEPS);
+            PAWN[1][square] = getStepAttacks(square, BLACK_PAWN_STEPS);
+
+            ROOK_MASKS[square] = getBlockerMask(square, ROOK_DIRECTIONS);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            ROOK_TABLES[square] = new long[1 << Long.bitCount(ROOK_MASKS[square])];
+            ROOK_MAGICS[square] = findMagic(square, ROOK_MASKS[square], ROOK_SHIFTS[square], ROOK_TABLES[square], ROOK_DIRECTIONS);
+
+            BISHOP_MASKS[square] = getBlockerMask(square, BISHOP_DIRECTIONS);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            BISHOP_TABLES[square] = new long[1 << Long.bitCount(BISHOP_MASKS[square])];
+            BISHOP_MAGICS[square] = findMagic(square, BISHOP_MASKS[square], BISHOP_SHIFTS[square], BISHOP_TABLES[square], BISHOP_DIRECTIONS);
+        }
+
+        // Build the lines between squares from the finished slider tables.
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = Bitboard.bit(a);
+                long bitB = Bitboard.bit(b);
+                if (a != b && (rook(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = rook(a, bitB) & rook(b, bitA);
+                    LINE[a][b] = (rook(a, 0) & rook(b, 0)) | bitA | bitB;
+                } else if (a != b && (bishop(a, 0) & bitB) != 0) {
+                    BETWEEN[a][b] = bishop(a, bitB) & bishop(b, bitA);
+                    LINE[a][b] = (bishop(a, 0) & bishop(b, 0)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @param square the square the knight is on.
+     * @return the bitboard of the tiles the knight attacks.
+     */
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * @param square the square the king is on.
+     * @return the bitboard of the tiles the king attacks.
+     */
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @param square  the square the pawn is on.
+     * @param isWhite whether the pawn is white or black.
+     * @return the bitboard of the tiles the pawn attacks diagonally.
+     */
+    public static long pawn(int square, boolean isWhite) {
+        return PAWN[isWhite ? 0 : 1][square];
+    }
+
+    /**
+     * @param pawns   the bitboard of the pawns.
+     * @param isWhite whether the pawns are white or black.
+     * @return the bitboard of the tiles attacked by any of the pawns.
+     */
+    public static long pawns(long pawns, boolean isWhite) {
+        if (isWhite) {
+            return ((pawns << 7) & ~Bitboard.FILE_H) | ((pawns << 9) & ~Bitboard.FILE_A);
+        } else {
+            return ((pawns >>> 9) & ~Bitboard.FILE_H) | ((pawns >>> 7) & ~Bitboard.FILE_A);
+        }
+    }
+
+    /**
+     * @param square   the square the rook is on.
+     * @param occupied the bitboard of all the occupied tiles.
+     * @return the bitboard of the tiles the rook attacks, including the first blocker on each ray.
+     */
+    public static long rook(int square, long occupied) {
+        return ROOK_TABLES[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * @param square   the square the bishop is on.
+     * @param occupied the bitboard of all the occupied tiles.
+     * @return the bitboard of the tiles the bishop attacks, including the first blocker on each ray.
+     */
+    public static long bishop(int square, long occupied) {
+        return BISHOP_TABLES[square][(int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * @param square   the square the queen is on.
+     * @param occupied the bitboard of all the occupied tiles.
+     * @return the bitboard of the tiles the queen attacks, including the first blocker on each ray.
+     */
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @param a the first square.
+     * @param b the second square.
+     * @return the bitboard of the tiles strictly between the squares. Empty if they don't share a rank, file or
+     * diagonal.
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @param a the first square.
+     * @param b the second square.
+     * @return the bitboard of the whole rank, file or diagonal through both squares. Empty if they don't share one.
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * @param square the square to start from.
+     * @param steps  the offsets the piece can jump to.
+     * @return the bitboard of the tiles reached by the steps that stay on the board.
+     */
+    private static long getStepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int x = Bitboard.getX(square) + step[0];
+            int y = Bitboard.getY(square) + step[1];
+            if (x >= 1 && x <= 8 && y >= 1 && y <= 8) {
+                attacks |= Bitboard.bit(Bitboard.square(x, y));
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each ray from the square one tile at a time. Only used to build the tables.
+     *
+     * @param square     the square to start from.
+     * @param occupied   the bitboard of all the occupied tiles.
+     * @param directions the rays to walk along.
+     * @return the bitboard of the tiles attacked along the rays, including the first blocker on each ray.
+     */
+    private static long getSlidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int x = Bitboard.getX(square) + direction[0];
+            int y = Bitboard.getY(square) + direction[1];
+            while (x >= 1 && x <= 8 && y >= 1 && y <= 8) {
+                long bit = Bitboard.bit(Bitboard.square(x, y));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                x += direction[0];
+                y += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * @param square     the square the piece is on.
+     * @param directions the rays the piece moves along.
+     * @return the tiles whose occupancy changes the attacks of the piece. The last tile of each ray never does.
+     */
+    private static long getBlockerMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int x = Bitboard.getX(square) + direction[0];
+            int y = Bitboard.getY(square) + direction[1];
+            while (x + direction[0] >= 1 && x + direction[0] <= 8 && y + direction[1] >= 1 && y + direction[1] <= 8) {
+                mask |= Bitboard.bit(Bitboard.square(x, y));
+                x += direction[0];
+                y += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Searches for a magic number that maps every blocker arrangement of the square to a table index without
+     * colliding attacks, and fills the table with it.
+     *
+     * @param square     the square the piece is on.
+     * @param mask       the blocker mask of the square.
+     * @param shift      the shift applied after the magic multiplication.
+     * @param table      the table to fill.
+     * @param directions the rays the piece moves along.
+     * @return the magic number.
+     */
+    private static long findMagic(int square, long mask, int shift, long[] table, int[][] directions) {
+
+        // Enumerate every subset of the mask along with its attacks.
+        int size = table.length;
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = getSlidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        int[] epochs = new int[size]; // The attempt each table entry was last written in.
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom() & nextRandom() & nextRandom();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+
+            boolean failed = false;
+            for (int i = 0; i < size && !failed; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shift);
+                if (epochs[index] != attempt) {
+                    epochs[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    failed = true;
+                }
+            }
+
+            if (!failed) {
+                return magic;
+            }
+        }
+    }
+
+    /**
+     * @return the next number of the xorshift generator used to search for magics.
+     */
+    private static long nextRandom() {
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 2685821657736338717L;
+    }
+}
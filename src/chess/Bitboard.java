@@ -0,0 +1,124 @@
+package chess;
+
+/**
+ * Helpers for working with bitboards. A bitboard is a 64-bit long where each bit represents a tile of the board.
+ * Bit 0 is a1, bit 7 is h1, bit 56 is a8 and bit 63 is h8.
+ */
+public final class Bitboard {
+
+    public static final long ALL = ~0L; // A bitboard with every tile set.
+
+    public static final long FILE_A = 0x0101010101010101L; // Every tile on the A file.
+    public static final long FILE_H = FILE_A << 7; // Every tile on the H file.
+
+    public static final long RANK_1 = 0xFFL; // Every tile on the first rank.
+    public static final long RANK_8 = RANK_1 << 56; // Every tile on the eighth rank.
+
+    private Bitboard() {
+    }
+
+    /**
+     * @param x the x of the tile. (1-8)
+     * @param y the y of the tile. (1-8)
+     * @return the square index (0-63) of the tile.
+     */
+    public static int square(int x, int y) {
+        return (y - 1) * 8 + (x - 1);
+    }
+
+    /**
+     * @param square the square index. (0-63)
+     * @return the x of the square. (1-8)
+     */
+    public static int getX(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @param square the square index. (0-63)
+     * @return the y of the square. (1-8)
+     */
+    public static int getY(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @param square the square index. (0-63)
+     * @return a bitboard with only the given square set.
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @param bitboard the bitboard to check.
+     * @param square   the square index to look for.
+     * @return whether the square is set in the bitboard.
+     */
+    public static boolean contains(long bitboard, int square) {
+        return (bitboard & (1L << square)) != 0;
+    }
+
+    /**
+     * @param bitboard the bitboard to fill.
+     * @return the bitboard with every tile above a set tile, towards the eighth rank, set as well.
+     */
+    public static long northFill(long bitboard) {
+        bitboard |= bitboard << 8;
+        bitboard |= bitboard << 16;
+        bitboard |= bitboard << 32;
+        return bitboard;
+    }
+
+    /**
+     * @param bitboard the bitboard to fill.
+     * @return the bitboard with every tile below a set tile, towards the first rank, set as well.
+     */
+    public static long southFill(long bitboard) {
+        bitboard |= bitboard >>> 8;
+        bitboard |= bitboard >>> 16;
+        bitboard |= bitboard >>> 32;
+        return bitboard;
+    }
+
+    /**
+     * @param bitboard the bitboard to fill.
+     * @return the bitboard of every file with a tile set.
+     */
+    public static long fileFill(long bitboard) {
+        return northFill(bitboard) | southFill(bitboard);
+    }
+
+    /**
+     * @param bitboard the bitboard to shift.
+     * @return the bitboard shifted one tile towards the H file. Tiles on the H file are dropped.
+     */
+    public static long east(long bitboard) {
+        return (bitboard << 1) & ~FILE_A;
+    }
+
+    /**
+     * @param bitboard the bitboard to shift.
+     * @return the bitboard shifted one tile towards the A file. Tiles on the A file are dropped.
+     */
+    public static long west(long bitboard) {
+        return (bitboard >>> 1) & ~FILE_H;
+    }
+
+    /**
+     * Formats the bitboard as an 8x8 grid, with the eighth rank on top.
+     *
+     * @param bitboard the bitboard to format.
+     * @return the formatted bitboard.
+     */
+    public static String toString(long bitboard) {
+        StringBuilder output = new StringBuilder();
+        for (int y = 8; y >= 1; y--) {
+            for (int x = 1; x <= 8; x++) {
+                output.append(contains(bitboard, square(x, y)) ? "X " : ". ");
+            }
+            output.append("\n");
+        }
+        return output.toString();
+    }
+}
@@ -2,6 +2,7 @@ package chess;
 
 import chess.pieces.*;
 import chess.player.Player;
+import chess.search.Evaluator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,30 +17,58 @@ public class Board {
     private ArrayList<Piece> whitePieces; // Cached white pieces.
     private ArrayList<Piece> blackPieces; // Cached black pieces.
 
-    private Piece[][] pieceGrid; // Cached grid of pieces.
+    private Piece[] pieceGrid; // Grid of pieces, indexed by the square index of their tile.
+
+    private Position position; // The bitboard representation of the pieces on this board.
 
     private Stack<Move> history; // History of all the moves applied to this board.
 
+    private Evaluator evaluator; // Scores the position of this board.
+
     private double whiteScore = -1; // Cached score for white.
     private double blackScore = -1; // Cached loaded score for black.
 
-    private boolean considerCastle = true; // Whether this board should consider castling in its possible moveset.
+    private boolean[] legalityLoaded = new boolean[2]; // Whether the pins and evasions of white (0) and black (1) are cached.
+    private long[] pinned = new long[2]; // Cached pinned pieces of white (0) and black (1).
+    private long[] evasions = new long[2]; // Cached tiles that answer a check on white (0) and black (1).
 
     /**
-     * Creates a new board.
+     * Creates a new board with the pieces in their starting positions.
      *
      * @param chess      the chess game manager attached to this board.
      */
     public Board(Chess chess) {
+        this(chess, new Position(Position.STARTING_POSITION));
+    }
+
+    /**
+     * Creates a new board from the given position.
+     *
+     * @param chess    the chess game manager attached to this board.
+     * @param position the position to use. The board takes ownership of it.
+     */
+    public Board(Chess chess, Position position) {
         this.chess = chess;
+        this.position = position;
 
         whitePieces = new ArrayList<>();
         blackPieces = new ArrayList<>();
-        pieceGrid = new Piece[8][8];
+        pieceGrid = new Piece[64];
 
         history = new Stack<>();
+        evaluator = new Evaluator();
 
-        placePieces();
+        createPieces();
+    }
+
+    /**
+     * Creates a copy of this board. The copy shares no pieces or state with this board, so it can be used by another
+     * thread. Its history starts empty, so moves applied before the copy can't be undone on it.
+     *
+     * @return the copy of the board.
+     */
+    public Board copy() {
+        return new Board(chess, position.copy());
     }
 
     /**
@@ -47,7 +76,7 @@ public class Board {
      * @return the piece represented on the tile. Null if not found.
      */
     public Piece get(Tile tile) {
-        return pieceGrid[tile.getX()-1][tile.getY()-1];
+        return pieceGrid[tile.getSquare()];
     }
 
     /**
@@ -56,7 +85,7 @@ public class Board {
      * @return the piece represented by the coordinate. Null if not found.
      */
     public Piece get(int x, int y) {
-        return pieceGrid[x-1][y-1];
+        return pieceGrid[Bitboard.square(x, y)];
     }
 
     /**
@@ -99,19 +128,28 @@ public class Board {
             return false;
         }
 
+        // Remember the castling rights so the move can be undone, and the hash of the position to find repetitions.
+        move.setCastlingRights(position.getCastlingRights());
+        long key = position.getHash();
+
         // Remove the piece in the destination tile.
         move.setRemovedPiece(removePiece(move.getDestination()));
 
         // Move the piece from the source tile to the destination tile.
-        pieceGrid[piece.getTile().getX()-1][piece.getTile().getY()-1] = null;
-        piece.moveTo(move.getDestination());
-        pieceGrid[piece.getTile().getX()-1][piece.getTile().getY()-1] = piece;
+        setTile(piece, move.getDestination());
 
         // Trigger onMove for the moved piece.
         piece.onMove(this, move);
 
-        // Add the move to history.
-        if(addToHistory) history.push(move);
+        // Moving the king or a rook, or capturing a rook, loses castling rights.
+        position.updateCastlingRights(move.getSource().getSquare(), move.getDestination().getSquare());
+
+        // Add the move to history and pass the turn. Moves outside the history are part of another move.
+        if(addToHistory) {
+            history.push(move);
+            position.toggleSide();
+            position.recordMove(key, piece instanceof Pawn || move.getRemovedPiece() != null);
+        }
 
         // Clear the caches.
         clearPiecesCache();
@@ -143,10 +181,8 @@ public class Board {
             piece = promotedPawn;
         }
 
-        // Move the piece from the source tile to the destination tile.
-        pieceGrid[piece.getTile().getX()-1][piece.getTile().getY()-1] = null;
-        piece.moveTo(move.getSource());
-        pieceGrid[piece.getTile().getX() - 1][piece.getTile().getY()-1] = piece;
+        // Move the piece from the destination tile back to the source tile.
+        setTile(piece, move.getSource());
 
         // If we removed a piece, place it back.
         if(move.getRemovedPiece() != null){
@@ -156,11 +192,23 @@ public class Board {
         // Trigger onMove for the moved piece.
         piece.onUnMove(this, move);
 
+        // Restore the castling rights, the turn and the halfmove clock.
+        position.setCastlingRights(move.getCastlingRights());
+        position.toggleSide();
+        position.unrecordMove();
+
         // Clear the caches.
         clearPiecesCache();
         clearScoreCache();
     }
 
+    /**
+     * @return whether the game is drawn by threefold repetition or by the fifty-move rule.
+     */
+    public boolean isDraw() {
+        return position.isRepetition(2) || position.getHalfmoveClock() >= 100;
+    }
+
     /**
      * Returns whether the given player is in check or not.
      *
@@ -168,19 +216,7 @@ public class Board {
      * @return whether they are in check.
      */
     public boolean inCheck(Player player) {
-        //Get the king first.
-        Tile kingSpace = player.getKing(this).getTile();
-
-        // Get the enemy player.
-        Player enemy = player == chess.getWhite() ? chess.getBlack() : chess.getWhite();
-
-        // Check if any of the enemy's possible moves can attack the king.
-        for (Move move : enemy.getPossibleMoves(this, false)) {
-            if (move.getDestination().equals(kingSpace)) {
-                return true;
-            }
-        }
-        return false;
+        return inCheck(player.isWhite());
     }
 
     /**
@@ -190,7 +226,37 @@ public class Board {
      * @return whether the player is in check.
      */
     public boolean inCheck(boolean isWhite) {
-        return inCheck(isWhite ? chess.getWhite() : chess.getBlack());
+        return position.inCheck(isWhite);
+    }
+
+    /**
+     * @param tile    the tile to look at.
+     * @param byWhite whether to look for white or black attackers.
+     * @return whether any piece of the given colour attacks the tile.
+     */
+    public boolean isSquareAttacked(Tile tile, boolean byWhite) {
+        return position.isSquareAttacked(tile.getSquare(), byWhite);
+    }
+
+    /**
+     * Returns whether a move of one of the pieces keeps its king out of check. The pins and checks of each side are
+     * worked out once per position, so no move has to be played to test it.
+     *
+     * @param move a move from getPossibleLocations() of a piece on this board.
+     * @return whether the move is legal.
+     */
+    public boolean isLegal(Move move) {
+        int src = move.getSource().getSquare();
+        boolean isWhite = Position.isWhite(position.get(src));
+        int side = isWhite ? 0 : 1;
+
+        if (!legalityLoaded[side]) {
+            pinned[side] = position.getPinned(isWhite);
+            evasions[side] = position.getEvasions(isWhite, position.getCheckers(isWhite));
+            legalityLoaded[side] = true;
+        }
+
+        return position.isLegal(src, move.getDestination().getSquare(), pinned[side], evasions[side]);
     }
 
     /**
@@ -228,25 +294,18 @@ public class Board {
             if (blackScore != -1) return blackScore;
         }
 
-        // Check for checkmates first.
-        if (getEnemy(player).getKing(this) == null || !getEnemy(player).canMove(this)) {
-            return 1000;
-        }
-
-        if (player.getKing(this) == null || !player.canMove(this)) {
-            return -1000;
-        }
-
-        // Calculate total score of each piece.
-        double score = 0;
-
-        List<Piece> pieces = getPieces(player);
-        for(int i=0;i<pieces.size();i++){
-            Piece piece = pieces.get(i);
-            score += piece.getScore();
+        // The material and piece square table scores are kept up to date by the position. The evaluator leaves
+        // checkmates to the search, so they are looked for here, stopping at the first legal move.
+        boolean isWhite = player.isWhite();
+        int points;
+        if (position.inCheck(!isWhite) && !position.hasAnyLegalMove(!isWhite)) {
+            points = Evaluator.WIN;
+        } else if (position.inCheck(isWhite) && !position.hasAnyLegalMove(isWhite)) {
+            points = -Evaluator.WIN;
+        } else {
+            points = evaluator.getScore(position, isWhite);
         }
-
-        score -= 1000;
+        double score = points / 100.0;
 
         // Cache the score.
         if (player.isWhite()) {
@@ -281,7 +340,8 @@ public class Board {
         }else{
             blackPieces.remove(piece);
         }
-        pieceGrid[piece.getTile().getX()-1][piece.getTile().getY() - 1] = null;
+        pieceGrid[tile.getSquare()] = null;
+        position.remove(tile.getSquare());
 
         clearPiecesCache();
 
@@ -299,47 +359,67 @@ public class Board {
         }else{
             blackPieces.add(piece);
         }
-        pieceGrid[piece.getTile().getX() - 1][piece.getTile().getY() - 1] = piece;
+        pieceGrid[piece.getTile().getSquare()] = piece;
+        position.put(piece.getType(), piece.isWhite(), piece.getTile().getSquare());
 
         clearPiecesCache();
     }
 
     /**
-     * Places the pieces in the correct starting positions.
+     * Moves a piece on the board to an empty tile.
+     *
+     * @param piece the piece to move.
+     * @param tile  the empty tile to move it to.
+     */
+    private void setTile(Piece piece, Tile tile) {
+        pieceGrid[piece.getTile().getSquare()] = null;
+        position.move(piece.getTile().getSquare(), tile.getSquare());
+        piece.moveTo(tile);
+        pieceGrid[tile.getSquare()] = piece;
+    }
+
+    /**
+     * Creates a piece for every piece of the position. Pieces are added starting from each player's own side.
      */
-    private void placePieces() {
-
-        // Place white's pieces.
-        addPiece(new Rook(this, true, Tile.pos(1, 1)));
-        addPiece(new Knight(this, true, Tile.pos(2, 1)));
-        addPiece(new Bishop(this, true, Tile.pos(3, 1)));
-        addPiece(new Queen(this, true, Tile.pos(4, 1)));
-        addPiece(new King(this, true, Tile.pos(5, 1)));
-        addPiece(new Bishop(this, true, Tile.pos(6, 1)));
-        addPiece(new Knight(this, true, Tile.pos(7, 1)));
-        addPiece(new Rook(this, true, Tile.pos(8, 1)));
-        for (int i = 0; i < 8; i++) {
-            addPiece(new Pawn(this, true, Tile.pos(i + 1, 2)));
+    private void createPieces() {
+        for (int y = 1; y <= 8; y++) {
+            for (int x = 1; x <= 8; x++) {
+                createPiece(Bitboard.square(x, y), true);
+            }
         }
+        for (int y = 8; y >= 1; y--) {
+            for (int x = 1; x <= 8; x++) {
+                createPiece(Bitboard.square(x, y), false);
+            }
+        }
+    }
+
+    /**
+     * Creates a piece for the piece of the position on the square, if it has the given colour.
+     *
+     * @param square  the square to look at.
+     * @param isWhite whether to create white or black pieces.
+     */
+    private void createPiece(int square, boolean isWhite) {
+        int index = position.get(square);
+        if (index == Position.EMPTY || Position.isWhite(index) != isWhite) return;
 
-        // Place black's pieces.
-        addPiece(new Rook(this, false, Tile.pos(1, 8)));
-        addPiece(new Knight(this, false, Tile.pos(2, 8)));
-        addPiece(new Bishop(this, false, Tile.pos(3, 8)));
-        addPiece(new Queen(this, false, Tile.pos(4, 8)));
-        addPiece(new King(this, false, Tile.pos(5, 8)));
-        addPiece(new Bishop(this, false, Tile.pos(6, 8)));
-        addPiece(new Knight(this, false, Tile.pos(7, 8)));
-        addPiece(new Rook(this, false, Tile.pos(8, 8)));
-        for (int i = 0; i < 8; i++) {
-            addPiece(new Pawn(this, false, Tile.pos(i + 1, 7)));
+        Piece piece = Piece.create(Position.getType(index), this, isWhite, Tile.fromSquare(square));
+        if (isWhite) {
+            whitePieces.add(piece);
+        } else {
+            blackPieces.add(piece);
         }
+        pieceGrid[square] = piece;
     }
 
     /**
-     * Clears the caches of all the pieces.
+     * Clears the caches of all the pieces, along with the pins and evasions they are filtered with.
      */
     private void clearPiecesCache(){
+        legalityLoaded[0] = false;
+        legalityLoaded[1] = false;
+
         for(Piece piece : whitePieces){
             piece.clearPossibleMovesCache();
         }
@@ -432,13 +512,21 @@ public class Board {
         return output.toString();
     }
 
-    public boolean shouldConsiderCastle() {
-        return considerCastle;
+    public Position getPosition() {
+        return position;
     }
 
-    public void setConsiderCastle(boolean considerCastle) {
-        this.considerCastle = considerCastle;
+    /**
+     * @return the Zobrist hash of the position, including the castling rights and the side to move.
+     */
+    public long getHash() {
+        return position.getHash();
     }
 
-
+    /**
+     * @return the Zobrist hash of the pawns only.
+     */
+    public long getPawnHash() {
+        return position.getPawnHash();
+    }
 }
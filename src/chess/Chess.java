@@ -69,10 +69,21 @@ public class Chess {
 
             // Print the new board.
             System.out.println(board);
+
+            // A threefold repetition or fifty moves without a capture or pawn move end the game in a draw.
+            if (board.isDraw()) {
+                System.out.println("==========( DRAW )==========");
+                return;
+            }
         }
 
         System.out.println(board.get(4,1));
 
+        // A player without moves is checkmated if in check, and stalemated otherwise.
+        if (!board.inCheck(currPlayer)) {
+            System.out.println("==========( STALEMATE )==========");
+            return;
+        }
         System.out.println("==========( " + (currPlayer == white ? "BLACK" : "WHITE") + " WON )==========");
     }
 
@@ -161,6 +172,5 @@ public class Chess {
 Current limitations
 
 1. NO En passant.
-2. You CAN castle THROUGH check.
-3. Pawns are ONLY promoted to queens.
+2. Pawns are ONLY promoted to queens.
  */
\ No newline at end of file
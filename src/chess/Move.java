@@ -13,6 +13,7 @@ public class Move {
     private Piece removedPiece; // The piece this move removed. Null if none.
     private boolean capture; // Whether the move resulted in a capture.
     private Pawn promotedPawn; // The pawn that was promoted. Null if there was no promotion.
+    private int castlingRights; // The castling rights of the board before this move was applied.
 
     /**
      * Creates a new move.
@@ -79,4 +80,12 @@ public class Move {
     public void setPromotedPawn(Pawn promotedPawn) {
         this.promotedPawn = promotedPawn;
     }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
 }
@@ -0,0 +1,109 @@
+package chess;
+
+/**
+ * Moves packed into a single int, so they can be generated and searched without allocating. The low 12 bits hold the
+ * source and destination squares in the same layout as the transposition table.
+ * <p>
+ * Bits 0-5 hold the destination square, bits 6-11 the source square, bits 12-15 the index of the moving piece,
+ * bits 16-19 the index of the captured piece plus one, bits 20-22 the type the pawn is promoted to and bit 23 is set
+ * for castling.
+ */
+public final class PackedMove {
+
+    public static final int NONE = 0; // Not a move. No move goes from a square to itself.
+
+    private static final int CASTLING = 1 << 23; // Set when the king castles.
+
+    private PackedMove() {
+    }
+
+    /**
+     * @param src       the source square.
+     * @param dest      the destination square.
+     * @param piece     the index of the moving piece.
+     * @param captured  the index of the captured piece. Position.EMPTY if none.
+     * @param promotion the type the pawn is promoted to. Position.EMPTY if none.
+     * @param castling  whether the king castles.
+     * @return the packed move.
+     */
+    public static int create(int src, int dest, int piece, int captured, int promotion, boolean castling) {
+        return dest
+                | src << 6
+                | piece << 12
+                | (captured + 1) << 16
+                | (promotion + 1) << 20
+                | (castling ? CASTLING : 0);
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the source square of the move.
+     */
+    public static int getSource(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the destination square of the move.
+     */
+    public static int getDestination(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the index of the moving piece.
+     */
+    public static int getPiece(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the index of the captured piece. Position.EMPTY if none.
+     */
+    public static int getCaptured(int move) {
+        return ((move >>> 16) & 15) - 1;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the type the pawn is promoted to. Position.EMPTY if none.
+     */
+    public static int getPromotion(int move) {
+        return ((move >>> 20) & 7) - 1;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return whether the move captures a piece.
+     */
+    public static boolean isCapture(int move) {
+        return (move & (15 << 16)) != 0;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return whether the move promotes a pawn.
+     */
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 20)) != 0;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return whether the king castles.
+     */
+    public static boolean isCastling(int move) {
+        return (move & CASTLING) != 0;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the move formatted the same way as Move.
+     */
+    public static String toString(int move) {
+        return Tile.fromSquare(getSource(move)) + " -> " + Tile.fromSquare(getDestination(move));
+    }
+}
@@ -0,0 +1,195 @@
+package chess;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reached by playing every legal move to a fixed depth. The counts can be compared with known
+ * values to test the move generation, and the time they take measures its speed.
+ * <p>
+ * The last ply is counted in bulk from the number of legal moves instead of being played. Counts of subtrees can be
+ * cached by the hash of their position, and the root moves can be counted in parallel.
+ * <p>
+ * Usage: {@code java chess.Perft <depth> [fen] [-divide] [-hash <megabytes>] [-threads <threads>]}
+ */
+public class Perft {
+
+    private static final int ENTRY_SIZE = 16; // Bytes used by each cache entry.
+    private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L; // Mixed into the hash so each depth has its own entries.
+
+    private long[] cache; // Pairs of the key XOR count, then the count of each slot. Null if counts aren't cached.
+    private int mask; // The number of slots minus one.
+
+    /**
+     * Creates a new perft counter.
+     *
+     * @param cacheMb the memory the cache of subtree counts may use, in megabytes. 0 to not cache counts.
+     */
+    public Perft(int cacheMb) {
+        if (cacheMb > 0) {
+            long slots = Long.highestOneBit((long) cacheMb * 1024 * 1024 / ENTRY_SIZE);
+            slots = Math.min(slots, 1 << 29);
+
+            cache = new long[(int) slots * 2];
+            mask = (int) slots - 1;
+        }
+    }
+
+    /**
+     * @param position the position to count from. Left unchanged.
+     * @param depth    the number of plies to play.
+     * @return the number of positions reached after the given number of plies.
+     */
+    public long perft(Position position, int depth) {
+        return count(position, depth, new int[Math.max(depth, 1)][Position.MAX_MOVES]);
+    }
+
+    /**
+     * Counts the positions reached through each root move, searching the root moves in parallel.
+     *
+     * @param position the position to count from. Left unchanged.
+     * @param depth    the number of plies to play. At least 1.
+     * @param pool     the pool the root moves are counted on.
+     * @param print    whether to print the count of each root move.
+     * @return the number of positions reached after the given number of plies.
+     */
+    public long divide(Position position, int depth, ForkJoinPool pool, boolean print) {
+        int[] rootMoves = new int[Position.MAX_MOVES];
+        int count = position.generateMoves(rootMoves, 0);
+
+        // Each root move gets its own copy of the position.
+        RootTask[] tasks = new RootTask[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new RootTask(position.copy(), rootMoves[i], depth - 1);
+            pool.execute(tasks[i]);
+        }
+
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            long nodes = tasks[i].join();
+            if (print) {
+                int move = rootMoves[i];
+                System.out.println(Tile.fromSquare(PackedMove.getSource(move)) + "" + Tile.fromSquare(PackedMove.getDestination(move)) + ": " + nodes);
+            }
+            total += nodes;
+        }
+        return total;
+    }
+
+    /**
+     * Counts the positions of a subtree, generating the moves of each ply into its own buffer.
+     *
+     * @param position the position to count from.
+     * @param depth    the number of plies left.
+     * @param moves    a move buffer for each ply left.
+     * @return the number of positions reached.
+     */
+    private long count(Position position, int depth, int[][] moves) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] buffer = moves[depth - 1];
+
+        // The positions of the last ply are the legal moves themselves.
+        if (depth == 1) {
+            return position.generateMoves(buffer, 0);
+        }
+
+        // Look up the count before generating moves, so a hit costs no move generation.
+        long key = position.getHash() + depth * DEPTH_KEY;
+        int index = ((int) key & mask) << 1;
+        if (cache != null) {
+            long nodes = cache[index + 1];
+            if ((cache[index] ^ nodes) == key) {
+                return nodes;
+            }
+        }
+
+        int count = position.generateMoves(buffer, 0);
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(buffer[i]);
+            nodes += count(position, depth - 1, moves);
+            position.undoMove();
+        }
+
+        // The key is stored XORed with the count, so an entry torn by two threads reads as a miss.
+        if (cache != null) {
+            cache[index] = key ^ nodes;
+            cache[index + 1] = nodes;
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the positions reached through one root move.
+     */
+    private class RootTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private Position position; // The copy of the root position this task owns.
+        private int move; // The root move to count.
+        private int depth; // The number of plies left after the root move.
+
+        /**
+         * @param position the copy of the root position to use.
+         * @param move     the root move to count.
+         * @param depth    the number of plies left after the root move.
+         */
+        private RootTask(Position position, int move, int depth) {
+            this.position = position;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            position.makeMove(move);
+            return perft(position, depth);
+        }
+    }
+
+    /**
+     * Runs perft from the command line and prints the number of positions and positions per second.
+     *
+     * @param args the depth, then optionally the FEN of the position and the options.
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: java chess.Perft <depth> [fen] [-divide] [-hash <megabytes>] [-threads <threads>]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String fen = Position.STARTING_POSITION;
+        boolean divide = false;
+        int cacheMb = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-divide")) {
+                divide = true;
+            } else if (args[i].equals("-hash")) {
+                cacheMb = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                fen = args[i];
+            }
+        }
+
+        Perft perft = new Perft(cacheMb);
+        Position position = new Position(fen);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        long start = System.nanoTime();
+        long nodes = depth == 0 ? 1 : perft.divide(position, depth, pool, divide);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        pool.shutdown();
+
+        System.out.println("depth " + depth + ": " + nodes + " nodes " + elapsed / 1000000 + "ms " + nodes * 1000000000L / elapsed + " nps");
+    }
+}
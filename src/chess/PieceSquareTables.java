@@ -0,0 +1,99 @@
+package chess;
+
+import chess.pieces.Bishop;
+import chess.pieces.King;
+import chess.pieces.Knight;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.Queen;
+import chess.pieces.Rook;
+
+/**
+ * The value of each piece on each square, in hundredths of a pawn. The score of a piece is its material value plus
+ * the score of its piece square table, so the total of a player can be updated incrementally as pieces move.
+ * <p>
+ * Each score holds a midgame and an endgame score packed into one int, which add and subtract as a pair. The two are
+ * blended by the game phase when the position is evaluated.
+ */
+public final class PieceSquareTables {
+
+    public static final int[] VALUES = {100, 320, 330, 500, 900, 0}; // The midgame value of each piece type. Both players always have a king.
+    public static final int[] ENDGAME_VALUES = {120, 300, 320, 520, 920, 0}; // The endgame value of each piece type.
+
+    public static final int[] PHASES = {0, 1, 1, 2, 4, 0}; // How much each piece type counts towards the midgame.
+    public static final int TOTAL_PHASE = 24; // The phase of the starting position. Phases above it count as the midgame.
+
+    public static final int[][] SCORES = new int[12][64]; // Packed value plus piece square table score of each piece index on each square.
+
+    // Convert the piece square tables of the pieces, flipping them for black.
+    static {
+        double[][][] midgameTables = {
+                Pawn.PIECE_SQUARE_TABLE,
+                Knight.PIECE_SQUARE_TABLE,
+                Bishop.PIECE_SQUARE_TABLE,
+                Rook.PIECE_SQUARE_TABLE,
+                Queen.PIECE_SQUARE_TABLE,
+                King.PIECE_SQUARE_TABLE_MID_GAME,
+        };
+        double[][][] endgameTables = {
+                Pawn.PIECE_SQUARE_TABLE_END_GAME,
+                Knight.PIECE_SQUARE_TABLE,
+                Bishop.PIECE_SQUARE_TABLE,
+                Rook.PIECE_SQUARE_TABLE,
+                Queen.PIECE_SQUARE_TABLE,
+                King.PIECE_SQUARE_TABLE_END_GAME,
+        };
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            for (int square = 0; square < 64; square++) {
+                int x = square & 7;
+                int y = square >>> 3;
+                SCORES[Position.getIndex(type, true)][square] = pack(
+                        VALUES[type] + (int) Math.round(midgameTables[type][7 - y][x] * 100),
+                        ENDGAME_VALUES[type] + (int) Math.round(endgameTables[type][7 - y][x] * 100));
+                SCORES[Position.getIndex(type, false)][square] = pack(
+                        VALUES[type] + (int) Math.round(midgameTables[type][y][7 - x] * 100),
+                        ENDGAME_VALUES[type] + (int) Math.round(endgameTables[type][y][7 - x] * 100));
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * @param midgame the midgame score.
+     * @param endgame the endgame score.
+     * @return both scores packed into one int. Packed scores can be added and subtracted directly.
+     */
+    public static int pack(int midgame, int endgame) {
+        return (endgame << 16) + midgame;
+    }
+
+    /**
+     * @param score the packed score.
+     * @return the midgame score.
+     */
+    public static int getMidgame(int score) {
+        return (short) score;
+    }
+
+    /**
+     * @param score the packed score.
+     * @return the endgame score.
+     */
+    public static int getEndgame(int score) {
+        return (short) ((score + 0x8000) >> 16);
+    }
+
+    /**
+     * Blends a packed score by the game phase.
+     *
+     * @param score the packed score.
+     * @param phase the game phase, from 0 for a bare endgame to TOTAL_PHASE for the midgame.
+     * @return the score, weighted towards the midgame score as the phase grows.
+     */
+    public static int taper(int score, int phase) {
+        phase = Math.min(phase, TOTAL_PHASE);
+        return (getMidgame(score) * phase + getEndgame(score) * (TOTAL_PHASE - phase)) / TOTAL_PHASE;
+    }
+}
@@ -0,0 +1,1198 @@
+package chess;
+
+import chess.pieces.Piece;
+
+import java.util.Arrays;
+
+/**
+ * Represents the state of the board as bitboards. Holds one bitboard per piece type and colour along with the
+ * occupancy of each colour, the side to move and the castling rights.
+ * <p>
+ * A position keeps all of its state inside itself and does not depend on the game or the players, so it can be
+ * copied and handed to another thread.
+ */
+public class Position {
+
+    public static final int EMPTY = -1; // Stored in the mailbox for squares without a piece.
+
+    public static final int MAX_MOVES = 256; // More moves than any position has. The size of a move buffer.
+
+    public static final String STARTING_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"; // FEN of the starting position.
+
+    private static final String INITIALS = "PNBRQK"; // The FEN initial of each piece type.
+
+    // The castling rights, stored as bit flags.
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    private static final int[] CASTLING_MASKS = new int[64]; // Castling rights kept when a piece moves from or to each square.
+
+    // The value of each piece type in a static exchange. Bishops and knights count the same, so trading one for the
+    // other is not a losing capture, and the king is worth more than everything else combined.
+    private static final int[] SEE_VALUES = {100, 320, 320, 500, 900, 20000};
+
+    // The kinds of moves generateMoves() can generate.
+    private static final int ALL_MOVES = 0;
+    private static final int CAPTURES = 1; // Captures and promotions.
+    private static final int QUIETS = 2; // Every move that is not a capture or a promotion.
+
+    // Initialize the castling masks. Moving the king or a rook, or capturing a rook, loses the matching rights.
+    static {
+        for (int square = 0; square < 64; square++) {
+            CASTLING_MASKS[square] = ALL_CASTLING;
+        }
+        CASTLING_MASKS[Bitboard.square(5, 1)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[Bitboard.square(8, 1)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASKS[Bitboard.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[Bitboard.square(5, 8)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[Bitboard.square(8, 8)] &= ~BLACK_KINGSIDE;
+        CASTLING_MASKS[Bitboard.square(1, 8)] &= ~BLACK_QUEENSIDE;
+    }
+
+    private long[] pieces; // Bitboard of each piece type and colour. Indexed by getIndex().
+    private long[] occupancy; // Bitboard of the tiles occupied by white (0) and black (1).
+    private long occupied; // Bitboard of all the occupied tiles.
+
+    private int[] mailbox; // The piece index on each square. EMPTY if none.
+
+    private boolean isWhiteToMove; // Whether it is white's turn to move.
+    private int castlingRights; // The castling rights still available, as bit flags.
+
+    private long hash; // Zobrist hash of the position.
+    private long pawnHash; // Zobrist hash of the pawns only.
+
+    private int[] pieceScores; // Total packed value and piece square table score of the pieces of white (0) and black (1).
+    private int phase; // The game phase, counted from the pieces left. See PieceSquareTables.PHASES.
+
+    private int[] history; // The moves applied with makeMove(), packed with what is needed to undo them.
+    private int historySize; // The number of moves in the history.
+
+    private long[] keys; // The hash of the position before each recorded move, oldest first, to find repetitions.
+    private int[] clocks; // The halfmove clock before each recorded move.
+    private int keyCount; // The number of recorded moves.
+    private int halfmoveClock; // The number of moves since the last capture or pawn move, for the fifty-move rule.
+
+    private int[] exchangeGains; // Buffer of the gains of each capture of a static exchange, one per piece plus one.
+
+    /**
+     * Creates a new empty position.
+     */
+    public Position() {
+        pieces = new long[12];
+        occupancy = new long[2];
+        occupied = 0;
+
+        mailbox = new int[64];
+        Arrays.fill(mailbox, EMPTY);
+
+        isWhiteToMove = true;
+        castlingRights = 0;
+
+        hash = Zobrist.CASTLING[castlingRights];
+        pawnHash = 0;
+
+        pieceScores = new int[2];
+        phase = 0;
+
+        history = new int[64];
+        historySize = 0;
+
+        keys = new long[64];
+        clocks = new int[64];
+        keyCount = 0;
+        halfmoveClock = 0;
+
+        exchangeGains = new int[34];
+    }
+
+    /**
+     * Creates a position from its FEN. The en passant field and the move number are ignored.
+     *
+     * @param fen the FEN of the position.
+     */
+    public Position(String fen) {
+        this();
+
+        String[] fields = fen.trim().split("\\s+");
+
+        // Place the pieces, starting from the eighth rank.
+        int x = 1;
+        int y = 8;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                x = 1;
+                y--;
+            } else if (Character.isDigit(c)) {
+                x += c - '0';
+            } else {
+                int type = INITIALS.indexOf(Character.toUpperCase(c));
+                if (type < 0 || x > 8 || y < 1) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                put(type, Character.isUpperCase(c), Bitboard.square(x, y));
+                x++;
+            }
+        }
+
+        if (fields.length > 1 && fields[1].equals("b")) {
+            toggleSide();
+        }
+
+        int castlingRights = 0;
+        if (fields.length > 2) {
+            if (fields[2].indexOf('K') >= 0) castlingRights |= WHITE_KINGSIDE;
+            if (fields[2].indexOf('Q') >= 0) castlingRights |= WHITE_QUEENSIDE;
+            if (fields[2].indexOf('k') >= 0) castlingRights |= BLACK_KINGSIDE;
+            if (fields[2].indexOf('q') >= 0) castlingRights |= BLACK_QUEENSIDE;
+        }
+        setCastlingRights(castlingRights);
+
+        if (fields.length > 4) {
+            halfmoveClock = Integer.parseInt(fields[4]);
+        }
+    }
+
+    /**
+     * Creates a copy of the given position.
+     *
+     * @param position the position to copy.
+     */
+    private Position(Position position) {
+        pieces = position.pieces.clone();
+        occupancy = position.occupancy.clone();
+        occupied = position.occupied;
+
+        mailbox = position.mailbox.clone();
+
+        isWhiteToMove = position.isWhiteToMove;
+        castlingRights = position.castlingRights;
+
+        hash = position.hash;
+        pawnHash = position.pawnHash;
+
+        pieceScores = position.pieceScores.clone();
+        phase = position.phase;
+
+        history = position.history.clone();
+        historySize = position.historySize;
+
+        keys = position.keys.clone();
+        clocks = position.clocks.clone();
+        keyCount = position.keyCount;
+        halfmoveClock = position.halfmoveClock;
+
+        exchangeGains = new int[34];
+    }
+
+    /**
+     * @return a copy of this position that shares no state with it, including the moves that can be undone.
+     */
+    public Position copy() {
+        return new Position(this);
+    }
+
+    /**
+     * @param type    the type of the piece. (Piece.PAWN to Piece.KING)
+     * @param isWhite whether the piece is white or black.
+     * @return the index of the piece in the piece bitboards.
+     */
+    public static int getIndex(int type, boolean isWhite) {
+        return isWhite ? type : type + 6;
+    }
+
+    /**
+     * @param index the piece index.
+     * @return the type of the piece with the given index.
+     */
+    public static int getType(int index) {
+        return index % 6;
+    }
+
+    /**
+     * @param index the piece index.
+     * @return whether the piece with the given index is white.
+     */
+    public static boolean isWhite(int index) {
+        return index < 6;
+    }
+
+    /**
+     * Places a piece on the given square. The square must be empty.
+     *
+     * @param type    the type of the piece.
+     * @param isWhite whether the piece is white or black.
+     * @param square  the square to place the piece on.
+     */
+    public void put(int type, boolean isWhite, int square) {
+        long bit = 1L << square;
+        int index = getIndex(type, isWhite);
+
+        pieces[index] |= bit;
+        occupancy[isWhite ? 0 : 1] |= bit;
+        occupied |= bit;
+
+        mailbox[square] = index;
+
+        hash ^= Zobrist.PIECES[index][square];
+        if (type == Piece.PAWN) pawnHash ^= Zobrist.PIECES[index][square];
+
+        pieceScores[isWhite ? 0 : 1] += PieceSquareTables.SCORES[index][square];
+        phase += PieceSquareTables.PHASES[type];
+    }
+
+    /**
+     * Removes the piece from the given square if one exists.
+     *
+     * @param square the square to remove the piece from.
+     * @return the index of the piece it removed. EMPTY if none.
+     */
+    public int remove(int square) {
+        int index = mailbox[square];
+        if (index == EMPTY) return EMPTY;
+
+        long bit = 1L << square;
+
+        pieces[index] &= ~bit;
+        occupancy[isWhite(index) ? 0 : 1] &= ~bit;
+        occupied &= ~bit;
+
+        mailbox[square] = EMPTY;
+
+        hash ^= Zobrist.PIECES[index][square];
+        if (getType(index) == Piece.PAWN) pawnHash ^= Zobrist.PIECES[index][square];
+
+        pieceScores[isWhite(index) ? 0 : 1] -= PieceSquareTables.SCORES[index][square];
+        phase -= PieceSquareTables.PHASES[getType(index)];
+
+        return index;
+    }
+
+    /**
+     * Moves the piece on the source square to the destination square. The destination square must be empty.
+     *
+     * @param src  the source square.
+     * @param dest the destination square.
+     */
+    public void move(int src, int dest) {
+        int index = mailbox[src];
+        long bits = (1L << src) | (1L << dest);
+
+        pieces[index] ^= bits;
+        occupancy[isWhite(index) ? 0 : 1] ^= bits;
+        occupied ^= bits;
+
+        mailbox[src] = EMPTY;
+        mailbox[dest] = index;
+
+        long key = Zobrist.PIECES[index][src] ^ Zobrist.PIECES[index][dest];
+        hash ^= key;
+        if (getType(index) == Piece.PAWN) pawnHash ^= key;
+
+        pieceScores[isWhite(index) ? 0 : 1] += PieceSquareTables.SCORES[index][dest] - PieceSquareTables.SCORES[index][src];
+    }
+
+    /**
+     * Applies a move of the piece on the source square, without checking whether it is legal. Castling moves the rook
+     * as well, and pawns reaching the last rank are promoted to queens.
+     *
+     * @param src  the source square.
+     * @param dest the destination square.
+     */
+    public void makeMove(int src, int dest) {
+        long key = hash;
+        int index = mailbox[src];
+        int captured = remove(dest);
+        int castlingRights = this.castlingRights;
+        boolean promoted = false;
+
+        move(src, dest);
+
+        int type = getType(index);
+        if (type == Piece.KING && Math.abs(dest - src) == 2) {
+
+            // The king castled, so the rook hops over it.
+            if (dest > src) {
+                move(src + 3, src + 1);
+            } else {
+                move(src - 4, src - 1);
+            }
+        } else if (type == Piece.PAWN && (dest >= 56 || dest < 8)) {
+
+            // The pawn reached the last rank, so it becomes a queen.
+            remove(dest);
+            put(Piece.QUEEN, isWhite(index), dest);
+            promoted = true;
+        }
+
+        updateCastlingRights(src, dest);
+        toggleSide();
+
+        // Remember how to undo the move.
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+        }
+        history[historySize++] = src | dest << 6 | (captured + 1) << 12 | castlingRights << 16 | (promoted ? 1 << 20 : 0);
+
+        recordMove(key, type == Piece.PAWN || captured != EMPTY);
+    }
+
+    /**
+     * Applies a packed move, without checking whether it is legal.
+     *
+     * @param move the move, from createMove() or generateMoves().
+     */
+    public void makeMove(int move) {
+        makeMove(PackedMove.getSource(move), PackedMove.getDestination(move));
+    }
+
+    /**
+     * Packs a move of the piece on the source square, reading the moving and captured pieces from the position.
+     *
+     * @param src  the source square.
+     * @param dest the destination square.
+     * @return the packed move.
+     */
+    public int createMove(int src, int dest) {
+        int index = mailbox[src];
+        int type = getType(index);
+
+        boolean castling = type == Piece.KING && Math.abs(dest - src) == 2;
+        int promotion = type == Piece.PAWN && (dest >= 56 || dest < 8) ? Piece.QUEEN : EMPTY;
+
+        return PackedMove.create(src, dest, index, mailbox[dest], promotion, castling);
+    }
+
+    /**
+     * Reverts the last move applied with makeMove().
+     */
+    public void undoMove() {
+        unrecordMove();
+
+        int entry = history[--historySize];
+        int src = entry & 63;
+        int dest = (entry >>> 6) & 63;
+        int captured = ((entry >>> 12) & 15) - 1;
+
+        toggleSide();
+        setCastlingRights((entry >>> 16) & 15);
+
+        // Turn a promoted queen back into a pawn.
+        if ((entry & (1 << 20)) != 0) {
+            boolean isWhite = isWhite(remove(dest));
+            put(Piece.PAWN, isWhite, dest);
+        }
+
+        // Move the rook back if the king castled.
+        if (getType(mailbox[dest]) == Piece.KING && Math.abs(dest - src) == 2) {
+            if (dest > src) {
+                move(src + 1, src + 3);
+            } else {
+                move(src - 1, src - 4);
+            }
+        }
+
+        move(dest, src);
+
+        if (captured != EMPTY) {
+            put(getType(captured), isWhite(captured), dest);
+        }
+    }
+
+    /**
+     * Passes the turn without moving, for null move pruning. Repetitions are not looked for across a null move.
+     */
+    public void makeNullMove() {
+        recordMove(hash, true);
+        toggleSide();
+    }
+
+    /**
+     * Reverts a null move applied with makeNullMove().
+     */
+    public void undoNullMove() {
+        toggleSide();
+        unrecordMove();
+    }
+
+    /**
+     * Remembers the hash of the position before a move and updates the halfmove clock. Called by makeMove(), or by
+     * whoever applies a move piece by piece.
+     *
+     * @param key          the hash of the position before the move.
+     * @param irreversible whether the move was a capture or a pawn move, which no later position can repeat past.
+     */
+    public void recordMove(long key, boolean irreversible) {
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, keyCount * 2);
+            clocks = Arrays.copyOf(clocks, keyCount * 2);
+        }
+        keys[keyCount] = key;
+        clocks[keyCount] = halfmoveClock;
+        keyCount++;
+
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+    }
+
+    /**
+     * Forgets the last move recorded with recordMove() and restores the halfmove clock.
+     */
+    public void unrecordMove() {
+        halfmoveClock = clocks[--keyCount];
+    }
+
+    /**
+     * Looks back through the recorded moves for earlier occurrences of this position with the same side to move. Only
+     * the moves since the last capture or pawn move are looked at.
+     *
+     * @param occurrences the number of earlier occurrences to look for. 1 for a twofold repetition, 2 for threefold.
+     * @return whether the position occurred at least the given number of times before.
+     */
+    public boolean isRepetition(int occurrences) {
+        int found = 0;
+        int oldest = Math.max(0, keyCount - halfmoveClock);
+        for (int i = keyCount - 2; i >= oldest; i -= 2) {
+            if (keys[i] == hash && ++found >= occurrences) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks for a repetition the way a search scores one. A single earlier occurrence at or after the root of the
+     * search is enough, since the player who repeated it could just repeat it again. Occurrences from the game before
+     * the root only count as a threefold repetition.
+     *
+     * @param root the number of moves recorded at the root of the search.
+     * @return whether the position is drawn by repetition.
+     */
+    public boolean isSearchRepetition(int root) {
+        int found = 0;
+        int oldest = Math.max(0, keyCount - halfmoveClock);
+        for (int i = keyCount - 2; i >= oldest; i -= 2) {
+            if (keys[i] == hash && (i >= root || ++found >= 2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes the turn to the other player.
+     */
+    public void toggleSide() {
+        isWhiteToMove = !isWhiteToMove;
+        hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    /**
+     * Removes the castling rights lost by a piece moving between the given squares.
+     *
+     * @param src  the source square of the move.
+     * @param dest the destination square of the move.
+     */
+    public void updateCastlingRights(int src, int dest) {
+        setCastlingRights(castlingRights & CASTLING_MASKS[src] & CASTLING_MASKS[dest]);
+    }
+
+    /**
+     * @param castlingRights the castling rights to use, as bit flags.
+     */
+    public void setCastlingRights(int castlingRights) {
+        hash ^= Zobrist.CASTLING[this.castlingRights] ^ Zobrist.CASTLING[castlingRights];
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * Returns every piece of the given colour attacking the square.
+     *
+     * @param square   the square to look at.
+     * @param byWhite  whether to look for white or black attackers.
+     * @param occupied the occupied tiles sliding pieces are blocked by.
+     * @return the bitboard of the attacking pieces.
+     */
+    public long getAttackers(int square, boolean byWhite, long occupied) {
+        int offset = byWhite ? 0 : 6;
+        long queens = pieces[offset + Piece.QUEEN];
+
+        return (Attacks.pawn(square, !byWhite) & pieces[offset + Piece.PAWN])
+                | (Attacks.knight(square) & pieces[offset + Piece.KNIGHT])
+                | (Attacks.king(square) & pieces[offset + Piece.KING])
+                | (Attacks.bishop(square, occupied) & (pieces[offset + Piece.BISHOP] | queens))
+                | (Attacks.rook(square, occupied) & (pieces[offset + Piece.ROOK] | queens));
+    }
+
+    /**
+     * @param square  the square to look at.
+     * @param byWhite whether to look for white or black attackers.
+     * @return whether any piece of the given colour attacks the square.
+     */
+    public boolean isSquareAttacked(int square, boolean byWhite) {
+        return isSquareAttacked(square, byWhite, occupied);
+    }
+
+    /**
+     * Looks outward from the square for an attacker of the given colour, stopping at the first one found. The cheap
+     * jumps and steps are tried before the slider rays.
+     *
+     * @param square   the square to look at.
+     * @param byWhite  whether to look for white or black attackers.
+     * @param occupied the occupied tiles sliding pieces are blocked by.
+     * @return whether any piece of the given colour attacks the square.
+     */
+    public boolean isSquareAttacked(int square, boolean byWhite, long occupied) {
+        int offset = byWhite ? 0 : 6;
+
+        if ((Attacks.knight(square) & pieces[offset + Piece.KNIGHT]) != 0) return true;
+        if ((Attacks.pawn(square, !byWhite) & pieces[offset + Piece.PAWN]) != 0) return true;
+        if ((Attacks.king(square) & pieces[offset + Piece.KING]) != 0) return true;
+
+        long queens = pieces[offset + Piece.QUEEN];
+        long diagonals = pieces[offset + Piece.BISHOP] | queens;
+        if (diagonals != 0 && (Attacks.bishop(square, occupied) & diagonals) != 0) return true;
+
+        long lines = pieces[offset + Piece.ROOK] | queens;
+        return lines != 0 && (Attacks.rook(square, occupied) & lines) != 0;
+    }
+
+    /**
+     * @param isWhite whether to check the white or black king.
+     * @return whether the king of the given colour is attacked. False if it has no king.
+     */
+    public boolean inCheck(boolean isWhite) {
+        int king = getKingSquare(isWhite);
+        return king >= 0 && isSquareAttacked(king, !isWhite, occupied);
+    }
+
+    /**
+     * @param isWhite whether to look at the white or black king.
+     * @return the bitboard of the enemy pieces giving check to the king.
+     */
+    public long getCheckers(boolean isWhite) {
+        int king = getKingSquare(isWhite);
+        return king < 0 ? 0 : getAttackers(king, !isWhite, occupied);
+    }
+
+    /**
+     * Returns the pieces that can't leave the line between their king and an enemy slider without exposing the king.
+     *
+     * @param isWhite whether to look at the white or black pieces.
+     * @return the bitboard of the pinned pieces.
+     */
+    public long getPinned(boolean isWhite) {
+        int king = getKingSquare(isWhite);
+        if (king < 0) return 0;
+
+        int offset = isWhite ? 6 : 0;
+        long queens = pieces[offset + Piece.QUEEN];
+        long snipers = (Attacks.rook(king, 0) & (pieces[offset + Piece.ROOK] | queens))
+                | (Attacks.bishop(king, 0) & (pieces[offset + Piece.BISHOP] | queens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & occupancy[isWhite ? 0 : 1];
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Returns the tiles a piece other than the king must move to for the king to stop being in check.
+     *
+     * @param isWhite  whether to look at the white or black king.
+     * @param checkers the pieces giving check, from getCheckers().
+     * @return every tile if the king is not in check, the checker and the tiles between it and the king if there is
+     * one checker, and no tiles if there are two.
+     */
+    public long getEvasions(boolean isWhite, long checkers) {
+        if (checkers == 0) return Bitboard.ALL;
+        if ((checkers & (checkers - 1)) != 0) return 0;
+
+        int checker = Long.numberOfTrailingZeros(checkers);
+        return checkers | Attacks.between(getKingSquare(isWhite), checker);
+    }
+
+    /**
+     * Returns whether a pseudo-legal move keeps its own king safe, using the pins and evasions of the position.
+     *
+     * @param src       the source square of the move.
+     * @param dest      the destination square of the move.
+     * @param pinned    the pinned pieces of the moving side, from getPinned().
+     * @param evasions  the evasions of the moving side, from getEvasions().
+     * @return whether the move is legal.
+     */
+    public boolean isLegal(int src, int dest, long pinned, long evasions) {
+        int index = mailbox[src];
+        boolean isWhite = isWhite(index);
+
+        // The king may go anywhere the enemy doesn't attack once it has left its square.
+        if (getType(index) == Piece.KING) {
+            return !isSquareAttacked(dest, !isWhite, occupied ^ (1L << src));
+        }
+
+        // Other pieces must answer any check, and pinned pieces must stay on the line of their pin.
+        if ((evasions & (1L << dest)) == 0) {
+            return false;
+        }
+        return (pinned & (1L << src)) == 0 || (Attacks.line(getKingSquare(isWhite), src) & (1L << dest)) != 0;
+    }
+
+    /**
+     * Writes the legal moves of the side to move into the buffer.
+     *
+     * @param moves the buffer to write to.
+     * @param start the index to start writing at.
+     * @return the index after the last move written.
+     */
+    public int generateMoves(int[] moves, int start) {
+        return generateMoves(isWhiteToMove, moves, start, true);
+    }
+
+    /**
+     * Writes the moves of one side into the buffer, captures of each piece before its other moves.
+     *
+     * @param isWhite       whether to generate the white or black moves.
+     * @param moves         the buffer to write to. Must have room for MAX_MOVES moves after the start.
+     * @param start         the index to start writing at.
+     * @param checkForCheck whether to leave out the moves that put or leave the king in check.
+     * @return the index after the last move written.
+     */
+    public int generateMoves(boolean isWhite, int[] moves, int start, boolean checkForCheck) {
+        return generateMoves(isWhite, moves, start, checkForCheck, ALL_MOVES);
+    }
+
+    /**
+     * Writes the legal captures and promotions of the side to move into the buffer. No other moves are generated.
+     *
+     * @param moves the buffer to write to.
+     * @param start the index to start writing at.
+     * @return the index after the last move written.
+     */
+    public int generateCaptures(int[] moves, int start) {
+        return generateMoves(isWhiteToMove, moves, start, true, CAPTURES);
+    }
+
+    /**
+     * Writes the legal moves of the side to move that are neither captures nor promotions into the buffer.
+     *
+     * @param moves the buffer to write to.
+     * @param start the index to start writing at.
+     * @return the index after the last move written.
+     */
+    public int generateQuiets(int[] moves, int start) {
+        return generateMoves(isWhiteToMove, moves, start, true, QUIETS);
+    }
+
+    /**
+     * @return whether the side to move has any legal move.
+     */
+    public boolean hasAnyLegalMove() {
+        return hasAnyLegalMove(isWhiteToMove);
+    }
+
+    /**
+     * Looks for a legal move of one side, stopping at the first one found instead of generating every move. The king
+     * is tried first, since it is the only piece that can answer a double check.
+     *
+     * @param isWhite whether to look for a white or black move.
+     * @return whether the side has any legal move.
+     */
+    public boolean hasAnyLegalMove(boolean isWhite) {
+        int offset = isWhite ? 0 : 6;
+        long own = occupancy[isWhite ? 0 : 1];
+        long enemy = occupancy[isWhite ? 1 : 0];
+
+        long pinned = getPinned(isWhite);
+        long evasions = getEvasions(isWhite, getCheckers(isWhite));
+
+        // Castling is left out. A king that may castle may also step to the tile next to it.
+        int king = getKingSquare(isWhite);
+        if (king >= 0 && hasLegalTarget(king, Attacks.king(king) & ~own, pinned, evasions)) {
+            return true;
+        }
+        if (evasions == 0) {
+            return false;
+        }
+
+        long targets = ~own & evasions;
+        for (long knights = pieces[offset + Piece.KNIGHT]; knights != 0; knights &= knights - 1) {
+            int src = Long.numberOfTrailingZeros(knights);
+            if (hasLegalTarget(src, Attacks.knight(src) & targets, pinned, evasions)) return true;
+        }
+        for (long bishops = pieces[offset + Piece.BISHOP]; bishops != 0; bishops &= bishops - 1) {
+            int src = Long.numberOfTrailingZeros(bishops);
+            if (hasLegalTarget(src, Attacks.bishop(src, occupied) & targets, pinned, evasions)) return true;
+        }
+        for (long rooks = pieces[offset + Piece.ROOK]; rooks != 0; rooks &= rooks - 1) {
+            int src = Long.numberOfTrailingZeros(rooks);
+            if (hasLegalTarget(src, Attacks.rook(src, occupied) & targets, pinned, evasions)) return true;
+        }
+        for (long queens = pieces[offset + Piece.QUEEN]; queens != 0; queens &= queens - 1) {
+            int src = Long.numberOfTrailingZeros(queens);
+            if (hasLegalTarget(src, Attacks.queen(src, occupied) & targets, pinned, evasions)) return true;
+        }
+
+        for (long pawns = pieces[offset + Piece.PAWN]; pawns != 0; pawns &= pawns - 1) {
+            int src = Long.numberOfTrailingZeros(pawns);
+            if (hasLegalTarget(src, getPawnTargets(src, isWhite, ALL_MOVES), pinned, evasions)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Pawns capture diagonally, step forward onto an empty tile, and step twice from their starting rank. Steps onto
+     * the last rank promote, so they count as captures rather than quiet moves.
+     *
+     * @param src     the square of the pawn.
+     * @param isWhite whether the pawn is white or black.
+     * @param kind    the kind of moves to include: ALL_MOVES, CAPTURES or QUIETS.
+     * @return the tiles the pawn can move to, ignoring pins and checks.
+     */
+    private long getPawnTargets(int src, boolean isWhite, int kind) {
+        long targets = kind == QUIETS ? 0 : Attacks.pawn(src, isWhite) & occupancy[isWhite ? 1 : 0];
+
+        int forward = isWhite ? 8 : -8;
+        int dest = src + forward;
+        if (isEmpty(dest)) {
+            long lastRanks = Bitboard.RANK_1 | Bitboard.RANK_8;
+            long stepRanks = kind == CAPTURES ? lastRanks : kind == QUIETS ? ~lastRanks : Bitboard.ALL;
+            targets |= (1L << dest) & stepRanks;
+
+            long startRank = isWhite ? Bitboard.RANK_1 << 8 : Bitboard.RANK_8 >>> 8;
+            if (kind != CAPTURES && (startRank & (1L << src)) != 0 && isEmpty(dest + forward)) {
+                targets |= 1L << (dest + forward);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * @param src      the square of the piece.
+     * @param targets  the tiles the piece can move to.
+     * @param pinned   the pinned pieces of the moving side.
+     * @param evasions the evasions of the moving side.
+     * @return whether the piece can legally move to any of the targets.
+     */
+    private boolean hasLegalTarget(int src, long targets, long pinned, long evasions) {
+        for (; targets != 0; targets &= targets - 1) {
+            if (isLegal(src, Long.numberOfTrailingZeros(targets), pinned, evasions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the moves of one side into the buffer, captures of each piece before its other moves.
+     *
+     * @param isWhite       whether to generate the white or black moves.
+     * @param moves         the buffer to write to. Must have room for MAX_MOVES moves after the start.
+     * @param start         the index to start writing at.
+     * @param checkForCheck whether to leave out the moves that put or leave the king in check.
+     * @param kind          the kind of moves to generate: ALL_MOVES, CAPTURES or QUIETS.
+     * @return the index after the last move written.
+     */
+    private int generateMoves(boolean isWhite, int[] moves, int start, boolean checkForCheck, int kind) {
+        int offset = isWhite ? 0 : 6;
+        long enemy = occupancy[isWhite ? 1 : 0];
+
+        // The tiles pieces other than pawns may move to.
+        long targets = kind == CAPTURES ? enemy : kind == QUIETS ? ~occupied : ~occupancy[isWhite ? 0 : 1];
+
+        long pinned = 0;
+        long evasions = Bitboard.ALL;
+        if (checkForCheck) {
+            pinned = getPinned(isWhite);
+            evasions = getEvasions(isWhite, getCheckers(isWhite));
+        }
+
+        int count = start;
+
+        for (long pawns = pieces[offset + Piece.PAWN]; pawns != 0; pawns &= pawns - 1) {
+            int src = Long.numberOfTrailingZeros(pawns);
+            count = addMoves(src, getPawnTargets(src, isWhite, kind), enemy, moves, count, checkForCheck, pinned, evasions);
+        }
+
+        for (long knights = pieces[offset + Piece.KNIGHT]; knights != 0; knights &= knights - 1) {
+            int src = Long.numberOfTrailingZeros(knights);
+            count = addMoves(src, Attacks.knight(src) & targets, enemy, moves, count, checkForCheck, pinned, evasions);
+        }
+        for (long bishops = pieces[offset + Piece.BISHOP]; bishops != 0; bishops &= bishops - 1) {
+            int src = Long.numberOfTrailingZeros(bishops);
+            count = addMoves(src, Attacks.bishop(src, occupied) & targets, enemy, moves, count, checkForCheck, pinned, evasions);
+        }
+        for (long rooks = pieces[offset + Piece.ROOK]; rooks != 0; rooks &= rooks - 1) {
+            int src = Long.numberOfTrailingZeros(rooks);
+            count = addMoves(src, Attacks.rook(src, occupied) & targets, enemy, moves, count, checkForCheck, pinned, evasions);
+        }
+        for (long queens = pieces[offset + Piece.QUEEN]; queens != 0; queens &= queens - 1) {
+            int src = Long.numberOfTrailingZeros(queens);
+            count = addMoves(src, Attacks.queen(src, occupied) & targets, enemy, moves, count, checkForCheck, pinned, evasions);
+        }
+
+        int king = getKingSquare(isWhite);
+        if (king >= 0) {
+            count = addMoves(king, Attacks.king(king) & targets, enemy, moves, count, checkForCheck, pinned, evasions);
+            if (kind != CAPTURES) {
+                count = addCastling(isWhite, king, moves, count, checkForCheck);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes the moves of a piece to each of the target tiles into the buffer, captures first.
+     *
+     * @param src           the square of the piece.
+     * @param targets       the tiles the piece can move to.
+     * @param enemy         the tiles occupied by the enemy.
+     * @param moves         the buffer to write to.
+     * @param count         the index to start writing at.
+     * @param checkForCheck whether to leave out the moves that put or leave the king in check.
+     * @param pinned        the pinned pieces of the moving side.
+     * @param evasions      the evasions of the moving side.
+     * @return the index after the last move written.
+     */
+    private int addMoves(int src, long targets, long enemy, int[] moves, int count, boolean checkForCheck, long pinned, long evasions) {
+        for (long captures = targets & enemy; captures != 0; captures &= captures - 1) {
+            int dest = Long.numberOfTrailingZeros(captures);
+            if (!checkForCheck || isLegal(src, dest, pinned, evasions)) {
+                moves[count++] = createMove(src, dest);
+            }
+        }
+        for (long quiets = targets & ~enemy; quiets != 0; quiets &= quiets - 1) {
+            int dest = Long.numberOfTrailingZeros(quiets);
+            if (!checkForCheck || isLegal(src, dest, pinned, evasions)) {
+                moves[count++] = createMove(src, dest);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes the castling moves of the king into the buffer. The king can't castle out of or through check.
+     *
+     * @param isWhite       whether the king is white or black.
+     * @param king          the square of the king.
+     * @param moves         the buffer to write to.
+     * @param count         the index to start writing at.
+     * @param checkForCheck whether to leave out a castling move that lands in check.
+     * @return the index after the last move written.
+     */
+    private int addCastling(boolean isWhite, int king, int[] moves, int count, boolean checkForCheck) {
+        int home = isWhite ? Bitboard.square(5, 1) : Bitboard.square(5, 8);
+        int kingside = isWhite ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = isWhite ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if (king != home || (castlingRights & (kingside | queenside)) == 0 || isSquareAttacked(king, !isWhite)) {
+            return count;
+        }
+
+        if (canCastle(isWhite, king, true, checkForCheck)) {
+            moves[count++] = createMove(king, king + 2);
+        }
+        if (canCastle(isWhite, king, false, checkForCheck)) {
+            moves[count++] = createMove(king, king - 2);
+        }
+        return count;
+    }
+
+    /**
+     * Tells whether the king on its home square, not in check, may castle to one side.
+     *
+     * @param isWhite       whether the king is white or black.
+     * @param king          the square of the king.
+     * @param kingside      whether to castle kingside or queenside.
+     * @param checkForCheck whether the king may not land in check.
+     * @return whether the king has the right to castle, the tiles between it and the rook are empty and it doesn't
+     * pass through check.
+     */
+    private boolean canCastle(boolean isWhite, int king, boolean kingside, boolean checkForCheck) {
+        if (kingside) {
+            return (castlingRights & (isWhite ? WHITE_KINGSIDE : BLACK_KINGSIDE)) != 0
+                    && isEmpty(king + 1) && isEmpty(king + 2)
+                    && !isSquareAttacked(king + 1, !isWhite)
+                    && (!checkForCheck || !isSquareAttacked(king + 2, !isWhite, occupied ^ (1L << king)));
+        }
+        return (castlingRights & (isWhite ? WHITE_QUEENSIDE : BLACK_QUEENSIDE)) != 0
+                && isEmpty(king - 1) && isEmpty(king - 2) && isEmpty(king - 3)
+                && !isSquareAttacked(king - 1, !isWhite)
+                && (!checkForCheck || !isSquareAttacked(king - 2, !isWhite, occupied ^ (1L << king)));
+    }
+
+    /**
+     * Tells whether a move packed in another position, like a killer move or the move of the transposition table, is
+     * legal in this position, without generating the moves of the position.
+     *
+     * @param move the packed move to test.
+     * @return whether the move is one of the legal moves of the side to move.
+     */
+    public boolean isLegalMove(int move) {
+        int src = PackedMove.getSource(move);
+        int dest = PackedMove.getDestination(move);
+        int index = mailbox[src];
+        int captured = mailbox[dest];
+
+        // The same piece has to be on the source square, and the same piece or none on the destination square.
+        if (index == EMPTY || index != PackedMove.getPiece(move) || captured != PackedMove.getCaptured(move)
+                || isWhite(index) != isWhiteToMove || (captured != EMPTY && isWhite(captured) == isWhiteToMove)) {
+            return false;
+        }
+
+        int king = getKingSquare(isWhiteToMove);
+        if (PackedMove.isCastling(move)) {
+            int home = isWhiteToMove ? Bitboard.square(5, 1) : Bitboard.square(5, 8);
+            return src == home && !isSquareAttacked(src, !isWhiteToMove) && canCastle(isWhiteToMove, src, dest > src, true);
+        }
+
+        long reach;
+        switch (getType(index)) {
+            case Piece.PAWN:
+                reach = getPawnTargets(src, isWhiteToMove, ALL_MOVES);
+                break;
+            case Piece.KNIGHT:
+                reach = Attacks.knight(src);
+                break;
+            case Piece.BISHOP:
+                reach = Attacks.bishop(src, occupied);
+                break;
+            case Piece.ROOK:
+                reach = Attacks.rook(src, occupied);
+                break;
+            case Piece.QUEEN:
+                reach = Attacks.queen(src, occupied);
+                break;
+            default:
+                reach = Attacks.king(src);
+                break;
+        }
+        if ((reach & (1L << dest)) == 0) {
+            return false;
+        }
+
+        if (king < 0) {
+            return true;
+        }
+        return isLegal(src, dest, getPinned(isWhiteToMove), getEvasions(isWhiteToMove, getCheckers(isWhiteToMove)));
+    }
+
+    /**
+     * Static exchange evaluation. Plays out every capture on the destination square of a move, each side always
+     * recapturing with its least valuable attacker, and stopping whenever recapturing would lose more. Sliders behind
+     * the pieces that capture join in as they are uncovered. Pins are not taken into account.
+     *
+     * @param move the packed move, usually a capture.
+     * @return the material the moving side wins from the exchange, in hundredths of a pawn. Negative if it loses
+     * material. Only the sign is exact, since the exchange stops as soon as its outcome is known.
+     */
+    public int see(int move) {
+        int src = PackedMove.getSource(move);
+        int dest = PackedMove.getDestination(move);
+        int captured = mailbox[dest];
+        boolean side = isWhite(mailbox[src]);
+
+        int[] gains = exchangeGains;
+        gains[0] = captured == EMPTY ? 0 : SEE_VALUES[getType(captured)];
+        int attackerValue = SEE_VALUES[getType(mailbox[src])];
+        if (PackedMove.isPromotion(move)) {
+            gains[0] += SEE_VALUES[Piece.QUEEN] - SEE_VALUES[Piece.PAWN];
+            attackerValue = SEE_VALUES[Piece.QUEEN];
+        }
+
+        long diagonals = pieces[Piece.BISHOP] | pieces[6 + Piece.BISHOP] | pieces[Piece.QUEEN] | pieces[6 + Piece.QUEEN];
+        long lines = pieces[Piece.ROOK] | pieces[6 + Piece.ROOK] | pieces[Piece.QUEEN] | pieces[6 + Piece.QUEEN];
+
+        long occupied = this.occupied;
+        long attackers = getAttackers(dest, true, occupied) | getAttackers(dest, false, occupied);
+        long from = 1L << src;
+
+        // Each gain assumes the piece that just captured is taken back.
+        int depth = 0;
+        do {
+            depth++;
+            gains[depth] = attackerValue - gains[depth - 1];
+
+            // Neither side can do better by continuing.
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                break;
+            }
+
+            // Remove the piece that captured, uncovering any slider behind it.
+            occupied ^= from;
+            attackers |= (Attacks.bishop(dest, occupied) & diagonals) | (Attacks.rook(dest, occupied) & lines);
+            attackers &= occupied;
+
+            // The other side recaptures with its least valuable attacker.
+            side = !side;
+            from = 0;
+            long sideAttackers = attackers & occupancy[side ? 0 : 1];
+            for (int type = Piece.PAWN; type <= Piece.KING && sideAttackers != 0; type++) {
+                long candidates = sideAttackers & pieces[getIndex(type, side)];
+                if (candidates != 0) {
+                    from = candidates & -candidates;
+                    attackerValue = SEE_VALUES[type];
+                    break;
+                }
+            }
+        } while (from != 0);
+
+        // Each side may stop capturing when it is ahead, so work the gains back to the first capture.
+        while (--depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+        }
+        return gains[0];
+    }
+
+    /**
+     * Recalculates the hash of the position from scratch.
+     *
+     * @return the Zobrist hash of the position.
+     */
+    public long computeHash() {
+        long hash = Zobrist.CASTLING[castlingRights];
+        if (!isWhiteToMove) hash ^= Zobrist.BLACK_TO_MOVE;
+        for (int square = 0; square < 64; square++) {
+            if (mailbox[square] != EMPTY) hash ^= Zobrist.PIECES[mailbox[square]][square];
+        }
+        return hash;
+    }
+
+    /**
+     * @param square the square to look at.
+     * @return the index of the piece on the square. EMPTY if none.
+     */
+    public int get(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * @param type    the type of the piece.
+     * @param isWhite whether to look for the white or black pieces.
+     * @return the bitboard of the pieces of the given type and colour.
+     */
+    public long getPieces(int type, boolean isWhite) {
+        return pieces[getIndex(type, isWhite)];
+    }
+
+    /**
+     * @param isWhite whether to look for the white or black pieces.
+     * @return the bitboard of the tiles occupied by the given colour.
+     */
+    public long getOccupancy(boolean isWhite) {
+        return occupancy[isWhite ? 0 : 1];
+    }
+
+    /**
+     * @return the bitboard of all the occupied tiles.
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * @param square the square to check.
+     * @return whether the square has no pieces on it.
+     */
+    public boolean isEmpty(int square) {
+        return (occupied & (1L << square)) == 0;
+    }
+
+    public boolean isWhiteToMove() {
+        return isWhiteToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public long getPawnHash() {
+        return pawnHash;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of moves recorded for finding repetitions, including null moves.
+     */
+    public int getRecordedMoves() {
+        return keyCount;
+    }
+
+    /**
+     * @param isWhite whether to look at the white or black pieces.
+     * @return the total value and piece square table score of the pieces, kept up to date as pieces move. Holds the
+     * midgame and endgame scores packed with PieceSquareTables.pack().
+     */
+    public int getPieceScore(boolean isWhite) {
+        return pieceScores[isWhite ? 0 : 1];
+    }
+
+    /**
+     * @return the game phase, from 0 when only kings and pawns are left to PieceSquareTables.TOTAL_PHASE or more in
+     * the midgame. Kept up to date as pieces are captured and promoted.
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    /**
+     * @param isWhite whether to look for the white or black king.
+     * @return the square of the king. -1 if there is none.
+     */
+    public int getKingSquare(boolean isWhite) {
+        long king = pieces[getIndex(Piece.KING, isWhite)];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @return the FEN of the position, without en passant and the move number.
+     */
+    public String toFen() {
+        StringBuilder output = new StringBuilder();
+
+        for (int y = 8; y >= 1; y--) {
+            int empty = 0;
+            for (int x = 1; x <= 8; x++) {
+                int index = mailbox[Bitboard.square(x, y)];
+                if (index == EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    output.append(empty);
+                    empty = 0;
+                }
+                char initial = INITIALS.charAt(getType(index));
+                output.append(isWhite(index) ? initial : Character.toLowerCase(initial));
+            }
+            if (empty > 0) output.append(empty);
+            if (y > 1) output.append('/');
+        }
+
+        output.append(isWhiteToMove ? " w " : " b ");
+
+        if (castlingRights == 0) output.append('-');
+        if ((castlingRights & WHITE_KINGSIDE) != 0) output.append('K');
+        if ((castlingRights & WHITE_QUEENSIDE) != 0) output.append('Q');
+        if ((castlingRights & BLACK_KINGSIDE) != 0) output.append('k');
+        if ((castlingRights & BLACK_QUEENSIDE) != 0) output.append('q');
+
+        return output.append(" - ").append(halfmoveClock).append(" 1").toString();
+    }
+
+    public String toString() {
+        return toFen();
+    }
+}
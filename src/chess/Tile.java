@@ -6,19 +6,23 @@ package chess;
 public class Tile {
 
     private static Tile[][] tileGrid; // Grid of tiles.
+    private static Tile[] tileSquares; // Tiles indexed by their square index.
 
     // Initialize the tileGrid.
     static {
         tileGrid = new Tile[8][8];
+        tileSquares = new Tile[64];
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
                 tileGrid[i][j] = new Tile(i + 1, j + 1);
+                tileSquares[tileGrid[i][j].square] = tileGrid[i][j];
             }
         }
     }
 
     private int x; // The x of the tile. (1-8)
     private int y; // The y of the tile. (1-8)
+    private int square; // The square index of the tile in a bitboard. (0-63)
 
     /**
      * Creates a new tile.
@@ -29,6 +33,7 @@ public class Tile {
     private Tile(int x, int y) {
         this.x = x;
         this.y = y;
+        this.square = Bitboard.square(x, y);
     }
 
     /**
@@ -45,6 +50,14 @@ public class Tile {
         return tileGrid[x - 1][y - 1];
     }
 
+    /**
+     * @param square the square index of the tile. (0-63)
+     * @return the tile with the given square index.
+     */
+    public static Tile fromSquare(int square) {
+        return tileSquares[square];
+    }
+
     /**
      * @return a formatted version of this tile with the piece initial on it.
      */
@@ -75,4 +88,8 @@ public class Tile {
     public int getY() {
         return y;
     }
+
+    public int getSquare() {
+        return square;
+    }
 }
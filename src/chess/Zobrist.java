@@ -0,0 +1,31 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * Random keys used to hash positions. The hash of a position is the XOR of the key of every piece on its square,
+ * the castling rights and the side to move, so it can be updated incrementally as pieces move.
+ */
+public final class Zobrist {
+
+    public static final long[][] PIECES = new long[12][64]; // Key of each piece index on each square.
+    public static final long[] CASTLING = new long[16]; // Key of each combination of castling rights.
+    public static final long BLACK_TO_MOVE; // Key toggled when it is black's turn.
+
+    // Generate the keys from a fixed seed, so hashes are the same between runs.
+    static {
+        Random random = new Random(0x5EED_C0DEL);
+        for (long[] keys : PIECES) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}
@@ -1,10 +1,10 @@
 package chess.pieces;
 
+import chess.Attacks;
 import chess.Board;
 import chess.Move;
 import chess.Tile;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,68 +40,12 @@ public class Bishop extends Piece {
     }
 
     @Override
-    public double getValue() {
-        return 3.3;
+    public int getType() {
+        return BISHOP;
     }
 
     @Override
     public List<Move> getPossibleLocations() {
-        ArrayList<Move> moves = new ArrayList<>();
-
-        // Look at all diagonals.
-        for (int i = 1; i < 8; i++) {
-            if (containsEnemyPiece(getNEDiagonal(i))) {
-                moves.add(0, capture(getNEDiagonal(i)));
-            }
-
-            if (!isEmpty(getNEDiagonal(i))) {
-                break;
-            }
-            moves.add(move(getNEDiagonal(i)));
-        }
-
-        for (int i = 1; i < 8; i++) {
-            if (containsEnemyPiece(getNWDiagonal(i))) {
-                moves.add(0, capture(getNWDiagonal(i)));
-            }
-
-            if (!isEmpty(getNWDiagonal(i))) {
-                break;
-            }
-            moves.add(move(getNWDiagonal(i)));
-        }
-
-        for (int i = 1; i < 8; i++) {
-            if (containsEnemyPiece(getSEDiagonal(i))) {
-                moves.add(0, capture(getSEDiagonal(i)));
-            }
-
-            if (!isEmpty(getSEDiagonal(i))) {
-                break;
-            }
-            moves.add(move(getSEDiagonal(i)));
-        }
-
-        for (int i = 1; i < 8; i++) {
-            if (containsEnemyPiece(getSWDiagonal(i))) {
-                moves.add(0, capture(getSWDiagonal(i)));
-            }
-
-            if (!isEmpty(getSWDiagonal(i))) {
-                break;
-            }
-            moves.add(move(getSWDiagonal(i)));
-        }
-
-        return moves;
-    }
-
-    @Override
-    protected double getBonusScore(Board board) {
-        double bonus = 0;
-
-        bonus += getPieceSquareTableScore(PIECE_SQUARE_TABLE);
-
-        return bonus;
+        return getMoves(Attacks.bishop(getTile().getSquare(), getBoard().getPosition().getOccupancy()));
     }
 }
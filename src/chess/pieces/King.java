@@ -2,6 +2,7 @@ package chess.pieces;
 
 import chess.Board;
 import chess.Move;
+import chess.Position;
 import chess.Tile;
 
 import java.util.ArrayList;
@@ -12,8 +13,6 @@ import java.util.List;
  */
 public class King extends Piece {
 
-    private static final double KING_CASTLE_BONUS = 0.5f; // Bonus points for the king not moving.
-
     // King's piece square table for early/mid game.
     public static final double[][] PIECE_SQUARE_TABLE_MID_GAME = {
             {-0.3, -0.4, -0.4, -0.5, -0.5, -0.4, -0.4, -0.3},
@@ -54,8 +53,8 @@ public class King extends Piece {
     }
 
     @Override
-    public double getValue() {
-        return 1000;
+    public int getType() {
+        return KING;
     }
 
     @Override
@@ -75,38 +74,24 @@ public class King extends Piece {
             }
         }
 
-        if (getBoard().shouldConsiderCastle()) {
-
-            // Prevent the other king from considering castling.
-            getBoard().setConsiderCastle(false);
-
-            // If the board wants us to consider castling, check whether castling is possible.
-            if (getMoves() == 0 && canCastleRight(getBoard()) && !inCheck(getBoard())) {
-                moves.add(move(getRight(2)));
-            }
-            if (getMoves() == 0 && canCastleLeft(getBoard()) && !inCheck(getBoard())) {
-                moves.add(move(getLeft(2)));
-            }
-
-            // Allow the other king to consider castling.
-            getBoard().setConsiderCastle(true);
+        // Check whether castling is possible. The king can't castle out of or through check. Landing in check is
+        // ruled out like any other king move.
+        if (canCastleRight(getBoard()) && !isAttacked(getTile()) && !isAttacked(getRight(1))) {
+            moves.add(move(getRight(2)));
+        }
+        if (canCastleLeft(getBoard()) && !isAttacked(getTile()) && !isAttacked(getLeft(1))) {
+            moves.add(move(getLeft(2)));
         }
 
         return moves;
     }
 
-    @Override
-    protected double getBonusScore(Board board) {
-        double bonus = 0f;
-
-//        if (getMoves() == 0 && canCastleRight(board))
-//            bonus += KING_CASTLE_BONUS;
-//        if (getMoves() == 0 && canCastleLeft(board))
-//            bonus += KING_CASTLE_BONUS;
-
-        bonus += getPieceSquareTableScore(PIECE_SQUARE_TABLE_MID_GAME);
-
-        return bonus;
+    /**
+     * @param tile the tile to check.
+     * @return whether an enemy piece attacks the tile.
+     */
+    private boolean isAttacked(Tile tile) {
+        return getBoard().isSquareAttacked(tile, !isWhite());
     }
 
     /**
@@ -116,10 +101,11 @@ public class King extends Piece {
      * @return whether the king can castle to the right.
      */
     private boolean canCastleRight(Board board) {
+        int castlingRights = board.getPosition().getCastlingRights();
         if (isWhite()) {
-            return isEmpty(getRight(1)) && isEmpty(getRight(2)) && containsAllyPiece(getRight(3)) && board.get(getRight(3)).getInitial().equals("R") && !board.get(getRight(3)).hasMoved();
+            return (castlingRights & Position.WHITE_KINGSIDE) != 0 && isEmpty(getRight(1)) && isEmpty(getRight(2));
         } else {
-            return isEmpty(getRight(1)) && isEmpty(getRight(2)) && isEmpty(getRight(3)) && containsAllyPiece(getRight(4)) && board.get(getRight(4)).getInitial().equals("R") && !board.get(getRight(4)).hasMoved();
+            return (castlingRights & Position.BLACK_QUEENSIDE) != 0 && isEmpty(getRight(1)) && isEmpty(getRight(2)) && isEmpty(getRight(3));
         }
     }
 
@@ -130,10 +116,11 @@ public class King extends Piece {
      * @return whether the king can castle to the right.
      */
     private boolean canCastleLeft(Board board) {
+        int castlingRights = board.getPosition().getCastlingRights();
         if (isWhite()) {
-            return isEmpty(getLeft(1)) && isEmpty(getLeft(2)) && isEmpty(getLeft(3)) && containsAllyPiece(getLeft(4)) && board.get(getLeft(4)).getInitial().equals("R") && !board.get(getLeft(4)).hasMoved();
+            return (castlingRights & Position.WHITE_QUEENSIDE) != 0 && isEmpty(getLeft(1)) && isEmpty(getLeft(2)) && isEmpty(getLeft(3));
         } else {
-            return isEmpty(getLeft(1)) && isEmpty(getLeft(2)) && containsAllyPiece(getLeft(3)) && board.get(getLeft(3)).getInitial().equals("R") && !board.get(getLeft(3)).hasMoved();
+            return (castlingRights & Position.BLACK_KINGSIDE) != 0 && isEmpty(getLeft(1)) && isEmpty(getLeft(2));
         }
     }
 
@@ -164,34 +151,20 @@ public class King extends Piece {
     public void onUnMove(Board board, Move move) {
         super.onUnMove(board, move);
 
-        Move rookMove;
-
         // If the king just castled, adjust the position of the rook.
         if (isWhite()) {
             if (move.getDestination().getX() - move.getSource().getX() == 2) {
-                rookMove = new Move(getRight(1), getRight(3));
-                board.get(getRight(1)).onUnMove(board, rookMove);
-                board.movePiece(rookMove, false, false);
-                board.get(getRight(3)).onUnMove(board, rookMove);
+                board.movePiece(new Move(getRight(1), getRight(3)), false, false);
             }
             if (move.getDestination().getX() - move.getSource().getX() == -2) {
-                rookMove = new Move(getLeft(1), getLeft(4));
-                board.get(getLeft(1)).onUnMove(board, rookMove);
-                board.movePiece(rookMove, false, false);
-                board.get(getLeft(4)).onUnMove(board, rookMove);
+                board.movePiece(new Move(getLeft(1), getLeft(4)), false, false);
             }
         } else {
             if (move.getDestination().getX() - move.getSource().getX() == -2) {
-                rookMove = new Move(getRight(1), getRight(4));
-                board.get(getRight(1)).onUnMove(board, rookMove);
-                board.movePiece(rookMove, false, false);
-                board.get(getRight(4)).onUnMove(board, rookMove);
+                board.movePiece(new Move(getRight(1), getRight(4)), false, false);
             }
             if (move.getDestination().getX() - move.getSource().getX() == 2) {
-                rookMove = new Move(getLeft(1), getLeft(3));
-                board.get(getLeft(1)).onUnMove(board, rookMove);
-                board.movePiece(rookMove, false, false);
-                board.get(getLeft(3)).onUnMove(board, rookMove);
+                board.movePiece(new Move(getLeft(1), getLeft(3)), false, false);
             }
         }
     }
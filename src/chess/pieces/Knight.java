@@ -40,8 +40,8 @@ public class Knight extends Piece {
     }
 
     @Override
-    public double getValue() {
-        return 3.2;
+    public int getType() {
+        return KNIGHT;
     }
 
     @Override
@@ -63,13 +63,4 @@ public class Knight extends Piece {
 
         return moves;
     }
-
-    @Override
-    protected double getBonusScore(Board board) {
-        double bonus = 0;
-
-        bonus += getPieceSquareTableScore(PIECE_SQUARE_TABLE);
-
-        return bonus;
-    }
 }
@@ -24,6 +24,18 @@ public class Pawn extends Piece {
             {0, 0, 0, 0, 0, 0, 0, 0},
     };
 
+    // Pawn's piece square table for end game. Passing pawns matter more than their file.
+    public static final double[][] PIECE_SQUARE_TABLE_END_GAME = {
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {0.8, 0.8, 0.8, 0.8, 0.8, 0.8, 0.8, 0.8},
+            {0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5},
+            {0.3, 0.3, 0.3, 0.3, 0.3, 0.3, 0.3, 0.3},
+            {0.15, 0.15, 0.15, 0.15, 0.15, 0.15, 0.15, 0.15},
+            {0.05, 0.05, 0.05, 0.05, 0.05, 0.05, 0.05, 0.05},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 0, 0, 0, 0, 0, 0, 0},
+    };
+
     /**
      * Creates a Pawn.
      *
@@ -40,8 +52,8 @@ public class Pawn extends Piece {
     }
 
     @Override
-    public double getValue() {
-        return 1;
+    public int getType() {
+        return PAWN;
     }
 
     @Override
@@ -53,7 +65,7 @@ public class Pawn extends Piece {
             moves.add(move(getForward(1)));
 
             // If the space in front of it is empty, check two spaces in front of it only if it hasn't moved yet.
-            if (isEmpty(getForward(2)) && getMoves() == 0) {
+            if (isEmpty(getForward(2)) && getTile().getY() == (isWhite() ? 2 : 7)) {
                 moves.add(move(getForward(2)));
             }
         }
@@ -69,15 +81,6 @@ public class Pawn extends Piece {
         return moves;
     }
 
-    @Override
-    protected double getBonusScore(Board board) {
-        double bonus = 0;
-
-         bonus += getPieceSquareTableScore(PIECE_SQUARE_TABLE);
-
-        return bonus;
-    }
-
     @Override
     public void onMove(Board board, Move move) {
         super.onMove(board, move);
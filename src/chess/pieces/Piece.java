@@ -2,6 +2,7 @@ package chess.pieces;
 
 import chess.Board;
 import chess.Move;
+import chess.Position;
 import chess.Tile;
 
 import java.util.ArrayList;
@@ -12,12 +13,16 @@ import java.util.List;
  */
 public abstract class Piece {
 
-    public static final double MOBILITY_MULTIPLIER = 0.05; // Multiplier for the mobility of the piece.
+    // The piece types, used to index the bitboards of the position.
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
 
     private Tile tile; // The tile this piece is on.
     private boolean isWhite; // Whether this piece is white or black.
-    private int moves; // The number of moves this piece has done throughout the game.
-    private Tile[] prevTiles; // The previous 6 tiles this piece was on.
     private Board board; // The board this piece is on.
 
     private List<Move> possibleMoves; // Lazily loaded list of possible moves. ONLY if checked for check.
@@ -33,10 +38,34 @@ public abstract class Piece {
         this.board = board;
         this.isWhite = isWhite;
         this.tile = tile;
+    }
 
-        prevTiles = new Tile[6];
-
-        moves = 0;
+    /**
+     * Creates a piece of the given type.
+     *
+     * @param type    the type of the piece. (PAWN to KING)
+     * @param board   the board the piece is on.
+     * @param isWhite whether the piece is white or black.
+     * @param tile    the tile the piece is on.
+     * @return the new piece.
+     */
+    public static Piece create(int type, Board board, boolean isWhite, Tile tile) {
+        switch (type) {
+            case PAWN:
+                return new Pawn(board, isWhite, tile);
+            case KNIGHT:
+                return new Knight(board, isWhite, tile);
+            case BISHOP:
+                return new Bishop(board, isWhite, tile);
+            case ROOK:
+                return new Rook(board, isWhite, tile);
+            case QUEEN:
+                return new Queen(board, isWhite, tile);
+            case KING:
+                return new King(board, isWhite, tile);
+            default:
+                throw new IllegalArgumentException("Unknown piece type: " + type);
+        }
     }
 
     /**
@@ -45,9 +74,9 @@ public abstract class Piece {
     public abstract String getInitial();
 
     /**
-     * @return the score of this piece.
+     * @return the type of this piece. (PAWN to KING)
      */
-    public abstract double getValue();
+    public abstract int getType();
 
     /**
      * Scans through the board and returns a list of all the possible tiles this piece could go on in the next turn. It does not account for putting the king in check.
@@ -69,18 +98,11 @@ public abstract class Piece {
         ArrayList<Move> output = new ArrayList<>();
         for (Move move: getPossibleLocations()) {
 
-            // Don't consider this move if the tile is stale.
-            if (isStale(move.getDestination())) {
-                continue;
-            }
-
-            // If we need to check for check, add only the moves that do not result in a check in the future.
+            // If we need to check for check, add only the moves that do not leave the king in check.
             if (checkForCheck) {
-                board.movePiece(move, false);
-                if (!board.inCheck(isWhite)) {
+                if (board.isLegal(move)) {
                     output.add(move);
                 }
-                board.undoMove();
             } else {
                 // Otherwise add the move blindly.
                 output.add(move);
@@ -101,22 +123,6 @@ public abstract class Piece {
         this.tile = tile;
     }
 
-    /**
-     * @param tile the tile to check.
-     * @return whether the piece has been at this tile 3 times in the last 5 moves.
-     */
-    private boolean isStale(Tile tile) {
-        if (tile == null) return false;
-
-        int count = 0;
-        for (Tile prev : prevTiles) {
-            if (tile.equals(prev)) {
-                count++;
-            }
-        }
-        return count == 3;
-    }
-
     /**
      * Returns whether the tile can move to the given destination tile (based on getPossibleLocations()). Considers check.
      *
@@ -132,42 +138,6 @@ public abstract class Piece {
         return false;
     }
 
-    /**
-     * @return the score of this piece.
-     */
-    public double getScore() {
-
-        double score = getValue();
-
-        score += getMobility(false) * MOBILITY_MULTIPLIER;
-
-        score += getBonusScore(board);
-
-        return score;
-    }
-
-    /**
-     * A method that children can override to increase their score.
-     *
-     * @return bonus score of the piece.
-     */
-    protected double getBonusScore(Board board) {
-        return 0;
-    }
-
-    /**
-     * Returns the score associated with the piece table. It accounts for blacks being inverted.
-     * @param pieceTable the piece table to use.
-     * @return the points.
-     */
-    protected double getPieceSquareTableScore(double[][] pieceTable){
-        if(isWhite){
-            return pieceTable[8-tile.getY()][tile.getX()-1];
-        }else{
-            return pieceTable[tile.getY()-1][8-tile.getX()];
-        }
-    }
-
     /**
      * Called every time the piece is moved. Can be overridden for further functionality.
      *
@@ -175,12 +145,6 @@ public abstract class Piece {
      * @param move  the move that was performed.
      */
     public void onMove(Board board, Move move) {
-        moves++;
-
-        // Add this to the stale tiles array.
-        System.arraycopy(prevTiles, 1, prevTiles, 0, 5);
-
-        prevTiles[5] = move.getDestination();
     }
 
     /**
@@ -189,12 +153,6 @@ public abstract class Piece {
      * @param move the move that was performed.
      */
     public void onUnMove(Board board, Move move){
-        moves--;
-
-        // Remove the move from the stale tiles array.
-        System.arraycopy(prevTiles, 0, prevTiles, 1, 5);
-
-        prevTiles[0] = move.getSource();
     }
 
     /**
@@ -215,13 +173,35 @@ public abstract class Piece {
         return new Move(this.tile, tile, false);
     }
 
+    /**
+     * Converts a bitboard of tiles this piece attacks into moves. Tiles with ally pieces are skipped, and captures are
+     * placed in front of the other moves.
+     *
+     * @param attacks the bitboard of the tiles this piece attacks.
+     * @return the list of moves.
+     */
+    protected List<Move> getMoves(long attacks) {
+        Position position = board.getPosition();
+        long captures = attacks & position.getOccupancy(!isWhite);
+        long quiets = attacks & ~position.getOccupancy();
+
+        ArrayList<Move> moves = new ArrayList<>(Long.bitCount(captures | quiets));
+        for (; captures != 0; captures &= captures - 1) {
+            moves.add(capture(Tile.fromSquare(Long.numberOfTrailingZeros(captures))));
+        }
+        for (; quiets != 0; quiets &= quiets - 1) {
+            moves.add(move(Tile.fromSquare(Long.numberOfTrailingZeros(quiets))));
+        }
+        return moves;
+    }
+
     /**
      * @param tile the tile to check.
      * @return whether the tile has no pieces on it.
      */
     public boolean isEmpty(Tile tile) {
         if (tile == null) return false;
-        return board.get(tile) == null;
+        return board.getPosition().isEmpty(tile.getSquare());
     }
 
     /**
@@ -230,8 +210,7 @@ public abstract class Piece {
      */
     protected boolean containsEnemyPiece(Tile tile) {
         if (tile == null) return false;
-        if (board.get(tile) == null) return false;
-        return isWhite != board.get(tile).isWhite;
+        return (board.getPosition().getOccupancy(!isWhite) & (1L << tile.getSquare())) != 0;
     }
 
     /**
@@ -240,8 +219,7 @@ public abstract class Piece {
      */
     protected boolean containsAllyPiece(Tile tile) {
         if (tile == null) return false;
-        if (board.get(tile) == null) return false;
-        return isWhite == board.get(tile).isWhite;
+        return (board.getPosition().getOccupancy(isWhite) & (1L << tile.getSquare())) != 0;
     }
 
     /**
@@ -333,22 +311,6 @@ public abstract class Piece {
         return board.inCheck(isWhite);
     }
 
-    /**
-     * @return whether this piece has moved or not.
-     */
-    public boolean hasMoved() {
-        return moves > 0;
-    }
-
-    /**
-     * Returns the number of moves this piece can go to.
-     * @param checkForCheck whether to check for check in its possible moves.
-     * @return the mobility of the piece.
-     */
-    private int getMobility(boolean checkForCheck){
-        return getPossibleMoves(checkForCheck).size();
-    }
-
     /**
      * Clears the cache of the possible moves for this piece.
      */
@@ -368,10 +330,6 @@ public abstract class Piece {
         return isWhite;
     }
 
-    public int getMoves() {
-        return moves;
-    }
-
     public Board getBoard() {
         return board;
     }
@@ -3,8 +3,13 @@ package chess.player;
 import chess.Board;
 import chess.Move;
 import chess.Pair;
+import chess.search.Evaluator;
+import chess.search.Searcher;
+import chess.search.TranspositionTable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -14,98 +19,163 @@ public class CPU extends Player {
 
     private static final boolean DEBUG = true;
 
-    private static final int COMPLEXITY = 5; // The number of its turns it looks ahead in the future to decide its next move.
+    public static final int DEFAULT_TABLE_SIZE = 64; // The default memory of the transposition table, in megabytes.
+    public static final long DEFAULT_TIME_BUDGET = 5000; // The default time the CPU may think for each move, in milliseconds.
 
+    private TranspositionTable table; // Results of positions already searched, kept between moves.
+    private Evaluator[] evaluators; // The evaluator of each search thread, the main one first. Their caches are kept between moves.
+
+    private long timeBudget = DEFAULT_TIME_BUDGET; // The time the CPU may think for each move, in milliseconds.
+    private int threads = 1; // The number of threads searching for each move.
+
+    private boolean nullMovePruning = true; // Whether the searches use null move pruning.
+    private boolean lateMoveReductions = true; // Whether the searches use late move reductions.
+    private boolean futilityPruning = true; // Whether the searches use futility pruning.
+
+    /**
+     * Creates a new CPU player with a transposition table of the default size.
+     *
+     * @param isWhite whether the player is white or black.
+     */
     public CPU(boolean isWhite) {
+        this(isWhite, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Creates a new CPU player.
+     *
+     * @param isWhite   whether the player is white or black.
+     * @param tableSize the memory of the transposition table, in megabytes.
+     */
+    public CPU(boolean isWhite, int tableSize) {
         super(isWhite);
+
+        table = new TranspositionTable(tableSize);
+        evaluators = new Evaluator[]{new Evaluator(Evaluator.DEFAULT_CACHE_SIZE)};
     }
 
     @Override
     public void move(Board board) {
 
-        Pair<Move, Double> highestMove = calculate(board, this, COMPLEXITY, null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        // Let entries of the previous moves be replaced first.
+        table.newSearch();
+
+        Move highestMove = search(board);
 
         // Check for null.
-        if (highestMove == null || highestMove.getFirst() == null) {
+        if (highestMove == null) {
             System.out.println("NO MOVES LEFT FOR CPU");
             return;
         }
 
         // Print out the move the CPU just did.
         System.out.println("\n\n");
-        System.out.println(highestMove.getFirst());
+        System.out.println(highestMove);
 
         // Perform the move!
-        board.movePiece(highestMove.getFirst(), false);
+        board.movePiece(highestMove, false);
 
 //        if(DEBUG) Toolkit.getDefaultToolkit().beep();
     }
 
     /**
-     * Uses minimax algorithm to calculate the move-score the player would most optimally choose.
+     * Searches the board for the best move. Helper threads search copies of the board at the same time, sharing what
+     * they find through the transposition table. The move of the main search on this thread is the one played.
      *
-     * @param board      the board to use.
-     * @param curr       the current player.
-     * @param layersLeft the number of layers left.
-     * @return the move-score with the most likelihood of being chosen.
+     * @param board the board to search.
+     * @return the best move. Null if the CPU has no moves.
      */
-    private Pair<Move, Double> calculate(Board board, Player curr, double layersLeft, Move rootMove, double alpha, double beta) {
-
-        if (layersLeft <= 0 || getKing(board) == null || board.getEnemy(this).getKing(board) == null || !canMove(board) || !board.getEnemy(this).canMove(board)) {
-            return new Pair<>(rootMove, getScore(board));
+    private Move search(Board board) {
+        long start = System.currentTimeMillis();
+        AtomicBoolean stop = new AtomicBoolean(false);
+
+        // Start the helpers. Every other helper starts one layer deeper so the threads spread over more depths.
+        Thread[] helpers = new Thread[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Searcher helper = createSearcher(board.copy(), evaluators[i + 1], stop, false);
+            int startDepth = 1 + (i + 1) % 2;
+
+            helpers[i] = new Thread(() -> helper.search(start, timeBudget, startDepth), "CPU helper " + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
         }
 
-        ArrayList<Move> possibleMoves = curr.getPossibleMoves(board, true);
-
-        if (curr == this) {
-            Pair<Move, Double> bestMove = new Pair<>(null, Double.NEGATIVE_INFINITY);
+        Move bestMove = createSearcher(board, evaluators[0], stop, DEBUG).search(start, timeBudget, 1);
 
-            for (Move move : possibleMoves) {
-                board.movePiece(move, false);
+        // Stop the helpers once the main search is done.
+        stop.set(true);
+        for (Thread helper : helpers) {
+            try {
+                helper.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
 
-//                double depth = (move.isCapture() || board.inCheck(board.getEnemy(curr))) ? layersLeft - 0.5 : layersLeft - 1;
-                double depth = layersLeft - 1;
+        return bestMove;
+    }
 
-                Pair<Move, Double> result = calculate(board, board.getEnemy(curr), depth, rootMove == null ? move : rootMove, alpha, beta);
-                bestMove = bestMove.getSecond() > result.getSecond() ? bestMove : result;
+    /**
+     * @param board     the board the searcher owns.
+     * @param evaluator the evaluator of the thread the searcher runs on.
+     * @param stop      the flag that stops the search.
+     * @param isMain    whether the searcher reports its progress.
+     * @return a searcher using the search options of this CPU.
+     */
+    private Searcher createSearcher(Board board, Evaluator evaluator, AtomicBoolean stop, boolean isMain) {
+        Searcher searcher = new Searcher(this, board, table, evaluator, stop, isMain);
+        searcher.setNullMovePruning(nullMovePruning);
+        searcher.setLateMoveReductions(lateMoveReductions);
+        searcher.setFutilityPruning(futilityPruning);
+        return searcher;
+    }
 
-                board.undoMove();
+    public long getTimeBudget() {
+        return timeBudget;
+    }
 
-                if (layersLeft == COMPLEXITY && DEBUG) {
-                    System.out.println(move + " (" + String.format("%.2f", result.getSecond()) + ")");
-                }
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
 
-                alpha = Math.max(alpha, result.getSecond());
-                if (beta <= alpha) {
-                    break;
-                }
-            }
+    public int getThreads() {
+        return threads;
+    }
 
-            return bestMove;
-        }else{
-            Pair<Move, Double> worstMove = new Pair<>(null, Double.POSITIVE_INFINITY);
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
 
-            for (Move move : possibleMoves) {
-                board.movePiece(move, false);
+        // Keep the evaluators of the threads that remain, and give each new thread its own.
+        int count = evaluators.length;
+        evaluators = Arrays.copyOf(evaluators, this.threads);
+        for (int i = count; i < this.threads; i++) {
+            evaluators[i] = new Evaluator(Evaluator.DEFAULT_CACHE_SIZE);
+        }
+    }
 
-//                double depth = (move.isCapture() || board.inCheck(board.getEnemy(curr))) ? layersLeft - 0.5 : layersLeft - 1;
-                double depth = layersLeft - 1;
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
 
-                Pair<Move, Double> result = calculate(board, board.getEnemy(curr), depth, rootMove == null ? move : rootMove, alpha, beta);
-                worstMove = worstMove.getSecond() < result.getSecond() ? worstMove : result;
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
 
-                board.undoMove();
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
 
-                beta = Math.min(beta, result.getSecond());
-                if (beta <= alpha) {
-                    break;
-                }
-            }
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
 
-            return worstMove;
-        }
+    public boolean isFutilityPruning() {
+        return futilityPruning;
     }
 
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
 
     /**
      * @param moves the moves to look through.
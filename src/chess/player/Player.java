@@ -47,7 +47,7 @@ public abstract class Player {
      * @return whether the player has any moves left.
      */
     public boolean canMove(Board board) {
-        return !getPossibleMoves(board, true).isEmpty();
+        return board.getPosition().hasAnyLegalMove(isWhite);
     }
 
     /**
@@ -0,0 +1,90 @@
+package chess.search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, direct-mapped cache of static evaluations, keyed by the Zobrist hash of the position. Each slot holds
+ * one position, and a new evaluation always replaces the old one. It is kept apart from the transposition table, so
+ * evaluations never push out search results.
+ * <p>
+ * The cache belongs to a single evaluator and is not shared between threads.
+ */
+public class EvaluationCache {
+
+    public static final int MISS = Integer.MIN_VALUE; // Returned by probe() when the position is not stored.
+
+    private static final int ENTRY_SIZE = 12; // Bytes used by each entry.
+
+    private long[] keys; // The hash of the position stored in each slot.
+    private int[] scores; // The score of the position stored in each slot.
+    private int mask; // The number of slots minus one. The number of slots is a power of two.
+
+    private long probes; // The number of lookups.
+    private long hits; // The number of lookups that found their position.
+
+    /**
+     * Creates a new evaluation cache.
+     *
+     * @param sizeMb the memory the cache may use, in megabytes. Rounded down to a power of two number of entries.
+     */
+    public EvaluationCache(int sizeMb) {
+        long slots = Long.highestOneBit(Math.max(1, (long) sizeMb * 1024 * 1024 / ENTRY_SIZE));
+        slots = Math.min(slots, 1 << 29);
+
+        keys = new long[(int) slots];
+        scores = new int[(int) slots];
+        mask = (int) slots - 1;
+    }
+
+    /**
+     * Looks up a position in the cache.
+     *
+     * @param hash the hash of the position.
+     * @return the stored score of the position. MISS if the position is not stored.
+     */
+    public int probe(long hash) {
+        int index = (int) hash & mask;
+        probes++;
+        if (keys[index] != hash) {
+            return MISS;
+        }
+        hits++;
+        return scores[index];
+    }
+
+    /**
+     * Stores the score of a position, replacing whatever the slot held.
+     *
+     * @param hash  the hash of the position.
+     * @param score the score of the position.
+     */
+    public void store(long hash, int score) {
+        int index = (int) hash & mask;
+        keys[index] = hash;
+        scores[index] = score;
+    }
+
+    /**
+     * Removes all the entries from the cache and resets the hit counter.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * @return the share of lookups that found their position, from 0 to 1.
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+}
@@ -0,0 +1,171 @@
+package chess.search;
+
+import chess.Attacks;
+import chess.PieceSquareTables;
+import chess.Position;
+import chess.pieces.Piece;
+
+/**
+ * Scores positions in hundredths of a pawn: the value of each piece, its piece square table, the number of tiles it
+ * can move to and the pawn structure. Piece scores move from their midgame to their endgame values as pieces come off
+ * the board.
+ */
+public class Evaluator {
+
+    public static final int WIN = 100000; // The score of a player whose enemy has no king.
+
+    public static final int DEFAULT_CACHE_SIZE = 4; // The default memory of the evaluation cache, in megabytes.
+    public static final int PAWN_TABLE_SIZE = 1; // The memory of the pawn table of a caching evaluator, in megabytes.
+
+    private static final int MOBILITY_MULTIPLIER = 5; // Score of each tile a piece can move to.
+
+    private boolean safeMobility = true; // Whether tiles attacked by enemy pawns are left out of the mobility.
+
+    private EvaluationCache cache; // Scores of positions already evaluated. Null if scores aren't cached.
+    private PawnTable pawnTable; // Scores of pawn structures already evaluated. Null if scores aren't cached.
+
+    /**
+     * Creates a new evaluator that doesn't cache its scores.
+     */
+    public Evaluator() {
+        this(0);
+    }
+
+    /**
+     * Creates a new evaluator.
+     *
+     * @param cacheSize the memory of the evaluation cache, in megabytes. 0 to not cache scores.
+     */
+    public Evaluator(int cacheSize) {
+        if (cacheSize > 0) {
+            cache = new EvaluationCache(cacheSize);
+            pawnTable = new PawnTable(PAWN_TABLE_SIZE);
+        }
+    }
+
+    /**
+     * @param position the position to score.
+     * @param isWhite  whether to score for the white or black player.
+     * @return the score of the player minus the score of the enemy.
+     */
+    public int evaluate(Position position, boolean isWhite) {
+        if (cache == null) {
+            return getScore(position, isWhite) - getScore(position, !isWhite);
+        }
+
+        // The cache holds the score for white, which is the negated score for black.
+        long hash = position.getHash();
+        int score = cache.probe(hash);
+        if (score == EvaluationCache.MISS) {
+            score = getScore(position, true) - getScore(position, false);
+            cache.store(hash, score);
+        }
+        return isWhite ? score : -score;
+    }
+
+    /**
+     * @param position the position to score.
+     * @param isWhite  whether to score the white or black player.
+     * @return the score of the player. Does not subtract the score of the enemy.
+     */
+    public int getScore(Position position, boolean isWhite) {
+
+        // Checkmate and stalemate are found by the search when it runs out of moves, but a position set up without a
+        // king is lost.
+        if (position.getKingSquare(!isWhite) < 0) {
+            return WIN;
+        }
+        if (position.getKingSquare(isWhite) < 0) {
+            return -WIN;
+        }
+
+        // The value and piece square table score of the pieces are kept up to date by the position. Along with the
+        // pawn structure they are blended between their midgame and endgame scores by how many pieces are left.
+        int score = PieceSquareTables.taper(position.getPieceScore(isWhite) + getPawnScore(position, isWhite), position.getPhase());
+
+        score += getMobility(position, isWhite) * MOBILITY_MULTIPLIER;
+
+        return score;
+    }
+
+    /**
+     * @param position the position to score.
+     * @param isWhite  whether to score the white or black pawns.
+     * @return the packed score of the pawn structure of the player.
+     */
+    public int getPawnScore(Position position, boolean isWhite) {
+        if (pawnTable != null) {
+            return pawnTable.getScore(position, isWhite);
+        }
+        long pawns = position.getPieces(Piece.PAWN, isWhite);
+        long enemyPawns = position.getPieces(Piece.PAWN, !isWhite);
+        return PawnStructure.evaluate(pawns, enemyPawns, isWhite);
+    }
+
+    /**
+     * Counts the tiles the knights, bishops, rooks and queens of a player attack, without generating their moves.
+     *
+     * @param position the position to use.
+     * @param isWhite  whether to count for the white or black player.
+     * @return the number of tiles the pieces can move to, counted once for each piece.
+     */
+    public int getMobility(Position position, boolean isWhite) {
+        long occupied = position.getOccupancy();
+
+        // Tiles with an ally piece can't be moved to, and tiles guarded by an enemy pawn rarely can be.
+        long area = ~position.getOccupancy(isWhite);
+        if (safeMobility) {
+            area &= ~Attacks.pawns(position.getPieces(Piece.PAWN, !isWhite), !isWhite);
+        }
+
+        int mobility = 0;
+        for (long knights = position.getPieces(Piece.KNIGHT, isWhite); knights != 0; knights &= knights - 1) {
+            mobility += Long.bitCount(Attacks.knight(Long.numberOfTrailingZeros(knights)) & area);
+        }
+        for (long bishops = position.getPieces(Piece.BISHOP, isWhite); bishops != 0; bishops &= bishops - 1) {
+            mobility += Long.bitCount(Attacks.bishop(Long.numberOfTrailingZeros(bishops), occupied) & area);
+        }
+        for (long rooks = position.getPieces(Piece.ROOK, isWhite); rooks != 0; rooks &= rooks - 1) {
+            mobility += Long.bitCount(Attacks.rook(Long.numberOfTrailingZeros(rooks), occupied) & area);
+        }
+        for (long queens = position.getPieces(Piece.QUEEN, isWhite); queens != 0; queens &= queens - 1) {
+            mobility += Long.bitCount(Attacks.queen(Long.numberOfTrailingZeros(queens), occupied) & area);
+        }
+        return mobility;
+    }
+
+    /**
+     * Empties the evaluation cache and the pawn table, if scores are cached.
+     */
+    public void clear() {
+        if (cache != null) {
+            cache.clear();
+            pawnTable.clear();
+        }
+    }
+
+    /**
+     * @return the evaluation cache. Null if scores aren't cached.
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the pawn table. Null if scores aren't cached.
+     */
+    public PawnTable getPawnTable() {
+        return pawnTable;
+    }
+
+    public boolean isSafeMobility() {
+        return safeMobility;
+    }
+
+    public void setSafeMobility(boolean safeMobility) {
+        this.safeMobility = safeMobility;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package chess.search;
+
+import chess.PackedMove;
+import chess.Position;
+
+import java.util.Arrays;
+
+/**
+ * Orders the moves of the search so the best ones are tried first and alpha-beta cuts off sooner. Moves are scored
+ * into a primitive array next to the move buffer, then picked one at a time by a selection sort, so moves after a
+ * cutoff are never sorted.
+ * <p>
+ * Captures and promotions come first by most valuable victim and least valuable attacker (MVV-LVA), then the two
+ * killer moves of the ply, then the counter move of the previous move, then the other quiet moves by their history
+ * score. The move of the transposition table is tried before all of them by the MovePicker.
+ */
+public class MoveOrdering {
+
+    private static final int CAPTURE_SCORE = 1 << 29; // Base score of captures and promotions.
+    private static final int KILLER_SCORE = 1 << 28; // Score of the first killer move. The second killer gets one less.
+    private static final int COUNTER_MOVE_SCORE = KILLER_SCORE - 2; // Score of the counter move of the previous move.
+    private static final int HISTORY_LIMIT = 1 << 24; // History scores are halved once one reaches this, keeping them below the counter move.
+
+    private int[][] killers; // The two quiet moves that last caused a cutoff at each ply.
+    private int[][] history; // How often each quiet move of white (0) and black (1) caused a cutoff, indexed by source * 64 + destination.
+    private int[][] counterMoves; // The quiet move that last refuted each move, indexed by the piece and destination of the move.
+
+    /**
+     * Creates a new move ordering.
+     *
+     * @param maxPly the most plies a line of the search can be long.
+     */
+    public MoveOrdering(int maxPly) {
+        killers = new int[maxPly][2];
+        history = new int[2][64 * 64];
+        counterMoves = new int[12][64];
+    }
+
+    /**
+     * Starts a new search. Killers only apply to the search they were found in, and history scores fade.
+     */
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+        ageHistory();
+    }
+
+    /**
+     * Forgets every killer, history score and counter move, as if no search had run yet.
+     */
+    public void clear() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, PackedMove.NONE);
+        }
+        for (int[] sideHistory : history) {
+            Arrays.fill(sideHistory, 0);
+        }
+        for (int[] pieceCounterMoves : counterMoves) {
+            Arrays.fill(pieceCounterMoves, PackedMove.NONE);
+        }
+    }
+
+    /**
+     * @param ply  the number of moves played since the root.
+     * @param slot 0 for the newest killer move of the ply, 1 for the older one.
+     * @return the killer move. PackedMove.NONE if none.
+     */
+    public int getKiller(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    /**
+     * Scores each move by how early it should be searched.
+     *
+     * @param moves        the moves to score.
+     * @param scores       the buffer the score of each move is written to.
+     * @param count        the number of moves.
+     * @param ply          the number of moves played since the root.
+     * @param previousMove the move that led to the position. PackedMove.NONE if none.
+     */
+    public void scoreMoves(int[] moves, int[] scores, int count, int ply, int previousMove) {
+        int counterMove = previousMove == PackedMove.NONE ? PackedMove.NONE
+                : counterMoves[PackedMove.getPiece(previousMove)][PackedMove.getDestination(previousMove)];
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+
+            if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                scores[i] = CAPTURE_SCORE + getMvvLva(move);
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE - 1;
+            } else if (move == counterMove) {
+                scores[i] = COUNTER_MOVE_SCORE;
+            } else {
+                scores[i] = history[getSide(move)][TranspositionTable.encodeMove(PackedMove.getSource(move), PackedMove.getDestination(move))];
+            }
+        }
+    }
+
+    /**
+     * Moves the highest scored of the remaining moves to the given index. One step of a selection sort.
+     *
+     * @param moves  the moves.
+     * @param scores the score of each move. Reordered along with the moves.
+     * @param index  the index to place the move at. The moves before it are already picked.
+     * @param count  the number of moves.
+     * @return the picked move.
+     */
+    public static int pickMove(int[] moves, int[] scores, int index, int count) {
+        int best = index;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+
+        int move = moves[best];
+        moves[best] = moves[index];
+        moves[index] = move;
+
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+
+        return move;
+    }
+
+    /**
+     * Remembers a quiet move that caused a cutoff, so it is tried earlier in similar positions.
+     *
+     * @param move         the move that caused the cutoff. Captures and promotions are ignored.
+     * @param ply          the number of moves played since the root.
+     * @param layersLeft   the number of layers the position was searched with. Deeper cutoffs count more.
+     * @param previousMove the move that led to the position. PackedMove.NONE if none.
+     */
+    public void addCutoff(int move, int ply, int layersLeft, int previousMove) {
+        if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+            return;
+        }
+
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        if (previousMove != PackedMove.NONE) {
+            counterMoves[PackedMove.getPiece(previousMove)][PackedMove.getDestination(previousMove)] = move;
+        }
+
+        int squares = TranspositionTable.encodeMove(PackedMove.getSource(move), PackedMove.getDestination(move));
+        int[] sideHistory = history[getSide(move)];
+        sideHistory[squares] += layersLeft * layersLeft;
+        if (sideHistory[squares] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Halves every history score.
+     */
+    private void ageHistory() {
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * @param move the packed capture or promotion.
+     * @return the ordering score of the move, highest for the most valuable victim taken by the least valuable
+     * attacker. A promotion counts as taking a queen.
+     */
+    private static int getMvvLva(int move) {
+        int captured = PackedMove.getCaptured(move);
+        int victim = captured == Position.EMPTY ? 0 : Position.getType(captured) + 1;
+        if (PackedMove.isPromotion(move)) {
+            victim += PackedMove.getPromotion(move) + 1;
+        }
+        return victim * 8 + 7 - Position.getType(PackedMove.getPiece(move));
+    }
+
+    /**
+     * @param move the packed move.
+     * @return 0 if the move is white's, 1 if black's.
+     */
+    private static int getSide(int move) {
+        return Position.isWhite(PackedMove.getPiece(move)) ? 0 : 1;
+    }
+}
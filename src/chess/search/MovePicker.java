@@ -0,0 +1,193 @@
+package chess.search;
+
+import chess.PackedMove;
+import chess.Position;
+
+/**
+ * Hands out the moves of a position one at a time in stages, generating each stage only once the previous one is
+ * used up. A cutoff on the hash move costs no move generation at all, and a cutoff on a capture or a killer skips the
+ * quiet moves.
+ * <p>
+ * The stages are the move of the transposition table, then the captures and promotions by MVV-LVA, then the killer
+ * moves, then the quiet moves by their counter move and history scores, then the captures that lose material. The hash
+ * move and killers come from other positions, so they are tested for legality before they are handed out and skipped
+ * when they are generated later.
+ * <p>
+ * A capture loses material when its static exchange evaluation is negative. Such captures are held back until every
+ * quiet move was tried, and are left out entirely when only captures are picked, which prunes them from quiescence.
+ * <p>
+ * Each ply of the search has its own picker, which reuses its buffers for every position it picks moves for.
+ */
+public class MovePicker {
+
+    // The stages of the picker, in the order they are used.
+    private static final int HASH_MOVE = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int BAD_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    private MoveOrdering ordering; // Scores the generated moves and holds the killer moves.
+    private int[] moves; // The buffer the moves of the current stage are generated in.
+    private int[] scores; // The ordering score of each move in the buffer.
+    private int[] badCaptures; // The captures that lose material, in the order they were held back.
+
+    private Position position; // The position to pick moves for.
+    private int ply; // The number of moves played since the root.
+    private int previousMove; // The move that led to the position. PackedMove.NONE if none.
+    private boolean capturesOnly; // Whether only captures and promotions are picked.
+
+    private int stage; // The current stage.
+    private int hashMove; // The move of the transposition table, packed for this position. PackedMove.NONE if none.
+    private int[] killers = new int[2]; // The killer moves handed out. PackedMove.NONE if none.
+    private int index; // The index of the next move in the buffer.
+    private int count; // The number of moves in the buffer.
+    private int badCaptureCount; // The number of captures held back.
+    private int badCaptureIndex; // The index of the next capture that loses material.
+
+    /**
+     * Creates a new move picker.
+     *
+     * @param ordering the move ordering of the search.
+     */
+    public MovePicker(MoveOrdering ordering) {
+        this.ordering = ordering;
+
+        moves = new int[Position.MAX_MOVES];
+        scores = new int[Position.MAX_MOVES];
+        badCaptures = new int[Position.MAX_MOVES];
+    }
+
+    /**
+     * Starts picking the moves of a position.
+     *
+     * @param position     the position to pick moves for. Must not change between calls to next(), other than by
+     *                     moves that are undone before the next call.
+     * @param hashMove     the best move of the transposition table, encoded with TranspositionTable.encodeMove().
+     *                     TranspositionTable.NO_MOVE if none.
+     * @param ply          the number of moves played since the root.
+     * @param previousMove the move that led to the position. PackedMove.NONE if none.
+     * @param capturesOnly whether to only pick captures and promotions.
+     */
+    public void init(Position position, int hashMove, int ply, int previousMove, boolean capturesOnly) {
+        this.position = position;
+        this.ply = ply;
+        this.previousMove = previousMove;
+        this.capturesOnly = capturesOnly;
+
+        stage = HASH_MOVE;
+        this.hashMove = PackedMove.NONE;
+        killers[0] = PackedMove.NONE;
+        killers[1] = PackedMove.NONE;
+        index = 0;
+        count = 0;
+        badCaptureCount = 0;
+        badCaptureIndex = 0;
+
+        // The hash move is packed again from the pieces of this position, then tested like any other move.
+        if (hashMove != TranspositionTable.NO_MOVE) {
+            int src = TranspositionTable.getSource(hashMove);
+            int dest = TranspositionTable.getDestination(hashMove);
+            if (!position.isEmpty(src)) {
+                int move = position.createMove(src, dest);
+                if ((!capturesOnly || PackedMove.isCapture(move) || PackedMove.isPromotion(move)) && position.isLegalMove(move)) {
+                    this.hashMove = move;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the next move to search. PackedMove.NONE once every legal move was picked.
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE:
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != PackedMove.NONE) {
+                        return hashMove;
+                    }
+                    break;
+
+                case GENERATE_CAPTURES:
+                    count = position.generateCaptures(moves, 0);
+                    index = 0;
+                    ordering.scoreMoves(moves, scores, count, ply, previousMove);
+                    stage = CAPTURES;
+                    break;
+
+                case CAPTURES:
+                    while (index < count) {
+                        int move = MoveOrdering.pickMove(moves, scores, index++, count);
+                        if (move == hashMove) {
+                            continue;
+                        }
+                        if (isLosingCapture(move)) {
+                            badCaptures[badCaptureCount++] = move;
+                            continue;
+                        }
+                        return move;
+                    }
+                    stage = capturesOnly ? DONE : FIRST_KILLER;
+                    break;
+
+                case FIRST_KILLER:
+                case SECOND_KILLER:
+                    int slot = stage - FIRST_KILLER;
+                    stage++;
+                    int killer = ordering.getKiller(ply, slot);
+                    if (killer != PackedMove.NONE && killer != hashMove && position.isLegalMove(killer)) {
+                        killers[slot] = killer;
+                        return killer;
+                    }
+                    break;
+
+                case GENERATE_QUIETS:
+                    count = position.generateQuiets(moves, 0);
+                    index = 0;
+                    ordering.scoreMoves(moves, scores, count, ply, previousMove);
+                    stage = QUIETS;
+                    break;
+
+                case QUIETS:
+                    while (index < count) {
+                        int move = MoveOrdering.pickMove(moves, scores, index++, count);
+                        if (move != hashMove && move != killers[0] && move != killers[1]) {
+                            return move;
+                        }
+                    }
+                    stage = BAD_CAPTURES;
+                    break;
+
+                case BAD_CAPTURES:
+                    if (badCaptureIndex < badCaptureCount) {
+                        return badCaptures[badCaptureIndex++];
+                    }
+                    stage = DONE;
+                    break;
+
+                default:
+                    return PackedMove.NONE;
+            }
+        }
+    }
+
+    /**
+     * @param move the packed capture or promotion.
+     * @return whether the move loses material by static exchange evaluation. Taking a piece at least as valuable as
+     * the capturing one never does, so the exchange is only played out for the others.
+     */
+    private boolean isLosingCapture(int move) {
+        int captured = PackedMove.getCaptured(move);
+        if (!PackedMove.isPromotion(move) && captured != Position.EMPTY
+                && Position.getType(captured) >= Position.getType(PackedMove.getPiece(move))) {
+            return false;
+        }
+        return position.see(move) < 0;
+    }
+}
@@ -0,0 +1,69 @@
+package chess.search;
+
+import chess.Attacks;
+import chess.Bitboard;
+import chess.PieceSquareTables;
+
+/**
+ * Scores the pawn structure of a player with whole-board bitwise operations instead of looking at each pawn's
+ * neighbours. Only the pawns are looked at, so the score can be cached by the pawn hash of the position.
+ * <p>
+ * Scores are packed midgame and endgame pairs, see PieceSquareTables.pack().
+ */
+public final class PawnStructure {
+
+    // Bonus of a passed pawn on each rank, counted from the player's own side.
+    private static final int[] PASSED = {
+            PieceSquareTables.pack(0, 0),
+            PieceSquareTables.pack(5, 10),
+            PieceSquareTables.pack(10, 20),
+            PieceSquareTables.pack(20, 40),
+            PieceSquareTables.pack(35, 70),
+            PieceSquareTables.pack(60, 120),
+            PieceSquareTables.pack(100, 200),
+            PieceSquareTables.pack(0, 0),
+    };
+
+    private static final int ISOLATED = PieceSquareTables.pack(-10, -20); // Penalty of a pawn with no allies on the files next to it.
+    private static final int DOUBLED = PieceSquareTables.pack(-10, -25); // Penalty of a pawn with an ally behind it on its file.
+    private static final int BACKWARD = PieceSquareTables.pack(-8, -12); // Penalty of a pawn that can't advance safely or be defended.
+
+    private PawnStructure() {
+    }
+
+    /**
+     * @param pawns      the bitboard of the pawns of the player.
+     * @param enemyPawns the bitboard of the pawns of the enemy.
+     * @param isWhite    whether the player is white or black.
+     * @return the packed score of the pawn structure of the player.
+     */
+    public static int evaluate(long pawns, long enemyPawns, boolean isWhite) {
+        int score = 0;
+
+        // A pawn is passed if no enemy pawn is in front of it on its own or a neighbouring file.
+        long enemyFronts = isWhite ? Bitboard.southFill(enemyPawns >>> 8) : Bitboard.northFill(enemyPawns << 8);
+        long blocked = enemyFronts | Bitboard.east(enemyFronts) | Bitboard.west(enemyFronts);
+        for (long passed = pawns & ~blocked; passed != 0; passed &= passed - 1) {
+            int rank = Long.numberOfTrailingZeros(passed) >>> 3;
+            score += PASSED[isWhite ? rank : 7 - rank];
+        }
+
+        // Every pawn behind another on the same file is doubled.
+        long behind = isWhite ? Bitboard.northFill(pawns << 8) : Bitboard.southFill(pawns >>> 8);
+        score += DOUBLED * Long.bitCount(pawns & behind);
+
+        // A pawn is isolated if no ally pawn is on a neighbouring file.
+        long files = Bitboard.fileFill(pawns);
+        score += ISOLATED * Long.bitCount(pawns & ~(Bitboard.east(files) | Bitboard.west(files)));
+
+        // A pawn is backward if the tile in front of it is guarded by an enemy pawn and no ally pawn can ever defend
+        // it, since the ally pawns next to it have all moved past.
+        long attacks = Attacks.pawns(pawns, isWhite);
+        long attackSpans = isWhite ? Bitboard.northFill(attacks) : Bitboard.southFill(attacks);
+        long stops = isWhite ? pawns << 8 : pawns >>> 8;
+        long backwardStops = stops & Attacks.pawns(enemyPawns, !isWhite) & ~attackSpans;
+        score += BACKWARD * Long.bitCount(backwardStops);
+
+        return score;
+    }
+}
@@ -0,0 +1,89 @@
+package chess.search;
+
+import chess.Position;
+import chess.pieces.Piece;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, direct-mapped cache of pawn structure scores, keyed by the pawn hash of the position. The pawns
+ * rarely change between neighbouring positions of a search, so most lookups find their structure.
+ * <p>
+ * The table belongs to a single evaluator and is not shared between threads.
+ */
+public class PawnTable {
+
+    private static final int ENTRY_SIZE = 16; // Bytes used by each entry.
+
+    private long[] keys; // The pawn hash of the structure stored in each slot.
+    private int[] scores; // The packed scores of white, then black, of the structure stored in each slot.
+    private int mask; // The number of slots minus one. The number of slots is a power of two.
+
+    private long probes; // The number of lookups.
+    private long hits; // The number of lookups that found their structure.
+
+    /**
+     * Creates a new pawn table.
+     *
+     * @param sizeMb the memory the table may use, in megabytes. Rounded down to a power of two number of entries.
+     */
+    public PawnTable(int sizeMb) {
+        long slots = Long.highestOneBit(Math.max(1, (long) sizeMb * 1024 * 1024 / ENTRY_SIZE));
+        slots = Math.min(slots, 1 << 28);
+
+        keys = new long[(int) slots];
+        scores = new int[(int) slots * 2];
+        mask = (int) slots - 1;
+    }
+
+    /**
+     * Looks up the pawn structure of the position, scoring and storing it if it is not stored yet.
+     *
+     * @param position the position to look at.
+     * @param isWhite  whether to get the score of the white or black pawns.
+     * @return the packed score of the pawn structure of the player.
+     */
+    public int getScore(Position position, boolean isWhite) {
+        long hash = position.getPawnHash();
+        int index = (int) hash & mask;
+
+        // A position without pawns hashes to 0, which empty slots already hold with a score of 0.
+        probes++;
+        if (keys[index] == hash) {
+            hits++;
+        } else {
+            long white = position.getPieces(Piece.PAWN, true);
+            long black = position.getPieces(Piece.PAWN, false);
+
+            keys[index] = hash;
+            scores[index * 2] = PawnStructure.evaluate(white, black, true);
+            scores[index * 2 + 1] = PawnStructure.evaluate(black, white, false);
+        }
+        return scores[index * 2 + (isWhite ? 0 : 1)];
+    }
+
+    /**
+     * Removes all the structures from the table and resets the hit counter.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(scores, 0);
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * @return the share of lookups that found their structure, from 0 to 1.
+     */
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+}
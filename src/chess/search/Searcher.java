@@ -0,0 +1,707 @@
+package chess.search;
+
+import chess.Board;
+import chess.Move;
+import chess.PackedMove;
+import chess.Position;
+import chess.pieces.Piece;
+import chess.player.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Searches a board for the best move of a player. A parallel search runs one searcher per thread, each on its own
+ * board, sharing only the transposition table and the stop flag.
+ * <p>
+ * The search runs on a copy of the position of the board with packed moves, and each ply generates its moves into
+ * its own preallocated buffer, so searching a position allocates nothing. Moves are only turned back into Move
+ * objects at the root.
+ */
+public class Searcher {
+
+    private static final int MAX_DEPTH = 64; // The deepest iteration the search will start.
+    private static final int MAX_PLY = 128; // The most plies a line of the search can be long.
+    private static final int INFINITE = 1000000; // A score above every score of the evaluation.
+    private static final int DRAW = 0; // The score of a drawn position.
+    private static final int ASPIRATION_WINDOW = 50; // How far the first window of an iteration reaches on each side of the previous score.
+    private static final int MATE_SCORE = Evaluator.WIN - MAX_PLY; // Scores at least this far from 0 are wins or losses, which pruning margins must not hide.
+
+    private static final int NULL_MOVE_MIN_DEPTH = 3; // The fewest layers left to try a null move at.
+    private static final int NULL_MOVE_REDUCTION = 2; // How many layers shallower than a normal move a null move is searched, on top of the layer it uses.
+    private static final int LMR_MIN_DEPTH = 3; // The fewest layers left to reduce late moves at.
+    private static final int LMR_MIN_INDEX = 3; // The number of moves searched at full depth before moves are reduced.
+    private static final int[] FUTILITY_MARGINS = {0, 200, 300, 500}; // How much a quiet move may gain in the last layers, by the number of layers left.
+    private static final int REVERSE_FUTILITY_MARGIN = 120; // How much the enemy may win back in each of the last layers.
+
+    private Player player; // The player to find a move for.
+    private Board board; // The board this searcher owns.
+    private TranspositionTable table; // Results of positions already searched, shared between searchers.
+    private AtomicBoolean stop; // Set to stop every searcher of the search.
+    private boolean isMain; // Whether this searcher reports its progress.
+
+    private Position position; // The position being searched. A copy of the position of the board.
+    private Evaluator evaluator; // Scores the leaves of the search.
+    private int[] rootMoves; // The moves of the root, from the moves of the board.
+    private MovePicker[] pickers; // Hands out the moves of each ply of the current line.
+    private int[] line; // The move played at each ply of the current line.
+    private MoveOrdering ordering; // Scores moves by how likely they are to be best, learning from earlier cutoffs.
+
+    private boolean nullMovePruning = true; // Whether to prune positions where passing the turn still beats beta.
+    private boolean lateMoveReductions = true; // Whether to search quiet moves late in the order with fewer layers.
+    private boolean futilityPruning = true; // Whether to prune positions and quiet moves near the leaves that are too far from the window.
+    private boolean verifying; // Whether a null move is being verified, in which case no more null moves are tried.
+
+    private long deadline; // The time the search has to stop at, in milliseconds.
+    private boolean stopped; // Whether this searcher has seen the stop flag.
+    private long nodes; // The number of positions visited by this searcher.
+    private int rootBestMove; // The best root move of the last root search. PackedMove.NONE if no move beat alpha.
+    private int rootRecordedMoves; // The number of moves the position had recorded at the root, where repetitions of the search begin.
+
+    /**
+     * Creates a new searcher.
+     *
+     * @param player    the player to find a move for.
+     * @param board     the board to search. Only this searcher may use it during the search.
+     * @param table     the transposition table, shared between searchers.
+     * @param evaluator the evaluator that scores the leaves. Only this searcher may use it during the search, but it
+     *                  can be reused by later searches to keep its caches.
+     * @param stop      the flag that stops the search, shared between searchers.
+     * @param isMain    whether this searcher reports its progress.
+     */
+    public Searcher(Player player, Board board, TranspositionTable table, Evaluator evaluator, AtomicBoolean stop, boolean isMain) {
+        this.player = player;
+        this.board = board;
+        this.table = table;
+        this.evaluator = evaluator;
+        this.stop = stop;
+        this.isMain = isMain;
+
+        rootMoves = new int[Position.MAX_MOVES];
+        line = new int[MAX_PLY];
+        ordering = new MoveOrdering(MAX_PLY);
+        pickers = new MovePicker[MAX_PLY];
+        for (int i = 0; i < MAX_PLY; i++) {
+            pickers[i] = new MovePicker(ordering);
+        }
+    }
+
+    /**
+     * Creates a searcher for fixed-depth searches of positions, without a player or a board, with an evaluator of its
+     * own.
+     *
+     * @param table the transposition table to use.
+     */
+    public Searcher(TranspositionTable table) {
+        this(null, null, table, new Evaluator(Evaluator.DEFAULT_CACHE_SIZE), new AtomicBoolean(false), false);
+    }
+
+    /**
+     * Searches the board one layer deeper at a time until the time budget runs out or the search is stopped.
+     *
+     * @param start      the time the search started at, in milliseconds.
+     * @param timeBudget the time the search may take, in milliseconds.
+     * @param startDepth the depth of the first iteration.
+     * @return the best move of the deepest search. Null if the player has no moves.
+     */
+    public Move search(long start, long timeBudget, int startDepth) {
+        deadline = start + timeBudget;
+        stopped = false;
+        nodes = 0;
+        ordering.newSearch();
+
+        ArrayList<Move> legalMoves = player.getPossibleMoves(board, true);
+        if (legalMoves.isEmpty()) {
+            return null;
+        }
+
+        // Search a copy of the position with the moves of the board packed.
+        position = board.getPosition().copy();
+        rootRecordedMoves = position.getRecordedMoves();
+        int count = legalMoves.size();
+        for (int i = 0; i < count; i++) {
+            Move move = legalMoves.get(i);
+            rootMoves[i] = position.createMove(move.getSource().getSquare(), move.getDestination().getSquare());
+        }
+
+        // Start with the best move of an earlier search of this position.
+        long entry = table.probe(position.getHash());
+        if (entry != 0) {
+            moveToFront(rootMoves, count, TranspositionTable.getMove(entry));
+        }
+
+        int[] rootScores = new int[count]; // The score of each root move in the last iteration.
+        int bestMove = rootMoves[0];
+        int bestScore = 0;
+
+        for (int depth = startDepth; depth <= MAX_DEPTH; depth++) {
+
+            // Search a narrow window around the score of the previous iteration. A score outside of it is only a
+            // bound, so the window is widened on that side and the iteration searched again.
+            int delta = ASPIRATION_WINDOW;
+            int alpha = depth > startDepth ? Math.max(bestScore - delta, -INFINITE) : -INFINITE;
+            int beta = depth > startDepth ? Math.min(bestScore + delta, INFINITE) : INFINITE;
+
+            while (true) {
+                int score = searchRoot(depth, alpha, beta, rootMoves, rootScores, count);
+
+                // Moves are searched in the order of the previous search, so even a partial search starts with the
+                // previous best move. Any move that beat it at the deeper depth is the better choice.
+                if (rootBestMove != PackedMove.NONE) {
+                    bestMove = rootBestMove;
+                    bestScore = score;
+                }
+
+                if (stopped) {
+                    break;
+                }
+
+                sortByScore(rootMoves, rootScores, count);
+
+                if (score <= alpha) {
+                    alpha = Math.max(alpha - delta, -INFINITE);
+                } else if (score >= beta) {
+                    beta = Math.min(beta + delta, INFINITE);
+                } else {
+                    break;
+                }
+                delta *= 2;
+            }
+
+            if (stopped) {
+                break;
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            if (isMain) {
+                System.out.println("depth " + depth + ": " + PackedMove.toString(bestMove) + " (" + String.format("%.2f", bestScore / 100.0) + ") " + nodes + " nodes " + elapsed + "ms, eval cache " + String.format("%.0f", evaluator.getCache().getHitRate() * 100) + "% hits, pawn table " + String.format("%.0f", evaluator.getPawnTable().getHitRate() * 100) + "% hits");
+            }
+
+            // The next iteration takes longer than all the previous ones, so don't start one that can't finish.
+            if (elapsed * 2 >= timeBudget) {
+                break;
+            }
+        }
+
+        return toMove(legalMoves, bestMove);
+    }
+
+    /**
+     * Searches a position to a fixed depth without a time limit, for the side to move. Used to measure the search.
+     *
+     * @param position the position to search. Left unchanged once the search returns.
+     * @param depth    the number of layers to search.
+     * @return the score of the position for the side to move.
+     */
+    public int search(Position position, int depth) {
+        this.position = position;
+        rootRecordedMoves = position.getRecordedMoves();
+        ordering.newSearch();
+        deadline = Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+
+        return calculate(depth, 0, -INFINITE, INFINITE);
+    }
+
+    /**
+     * Forgets what earlier searches left in the evaluation caches and the move ordering, without reallocating them. The
+     * transposition table is shared between searchers, so it is left to its owner.
+     */
+    public void clear() {
+        evaluator.clear();
+        ordering.clear();
+    }
+
+    /**
+     * Searches each root move within a window, the first with the full window and the others with a null window.
+     * Sets rootBestMove to the move that raised alpha last, or PackedMove.NONE if none did.
+     *
+     * @param depth      the number of layers to search.
+     * @param alpha      the lower bound of the window.
+     * @param beta       the upper bound of the window.
+     * @param rootMoves  the root moves, best first.
+     * @param rootScores the buffer the score of each root move is written to. Moves that weren't searched score
+     *                   -INFINITE.
+     * @param count      the number of root moves.
+     * @return the score of the best root move, for the side to move.
+     */
+    private int searchRoot(int depth, int alpha, int beta, int[] rootMoves, int[] rootScores, int count) {
+        int bestScore = -INFINITE;
+        rootBestMove = PackedMove.NONE;
+        Arrays.fill(rootScores, 0, count, -INFINITE);
+
+        for (int i = 0; i < count; i++) {
+            int move = rootMoves[i];
+            line[0] = move;
+
+            position.makeMove(move);
+            int score = searchMove(i, depth - 1, 1, alpha, beta, 0);
+            position.undoMove();
+
+            // The result of an interrupted move is not reliable.
+            if (stopped) {
+                break;
+            }
+
+            rootScores[i] = score;
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    rootBestMove = move;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return bestScore;
+    }
+
+    /**
+     * Uses the negamax form of the principal variation search to calculate the score the player to move would most
+     * optimally get. The first move is expected to be the best, so the moves after it are only searched with a null
+     * window to prove they are worse.
+     *
+     * @param layersLeft the number of layers left.
+     * @param ply        the number of moves played since the root.
+     * @param alpha      the score the player to move is already guaranteed.
+     * @param beta       the score the enemy is already guaranteed, negated.
+     * @return the score of the position for the player to move.
+     */
+    private int calculate(int layersLeft, int ply, int alpha, int beta) {
+
+        // A position repeated since the root is a draw, since the player who repeated it could just repeat it again. A
+        // position from the game before the root has to have occurred twice already. Fifty moves without a capture or
+        // pawn move are a draw as well.
+        if (ply > 0 && (position.getHalfmoveClock() >= 100 || position.isSearchRepetition(rootRecordedMoves))) {
+            return DRAW;
+        }
+
+        // Play out the captures at the leaves, so a position isn't scored in the middle of an exchange.
+        if (layersLeft <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+
+        // Stop searching once the time budget runs out or another searcher stopped the search. The caller discards
+        // the result.
+        if (checkStop()) {
+            return 0;
+        }
+
+        // Look up the position in the transposition table.
+        long hash = position.getHash();
+        long entry = table.probe(hash);
+        if (entry != 0 && TranspositionTable.getDepth(entry) >= layersLeft) {
+            int score = fromTableScore(TranspositionTable.getScore(entry), ply);
+            int bound = TranspositionTable.getBound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        if (ply >= MAX_PLY - 1 || position.getKingSquare(true) < 0 || position.getKingSquare(false) < 0) {
+            return evaluator.evaluate(position, position.isWhiteToMove());
+        }
+
+        // Positions in the principal variation and positions in check are never pruned.
+        boolean isPv = beta - alpha > 1;
+        boolean inCheck = position.inCheck(position.isWhiteToMove());
+        boolean canPrune = !isPv && !inCheck && Math.abs(beta) < MATE_SCORE;
+        int staticScore = canPrune ? evaluator.evaluate(position, position.isWhiteToMove()) : 0;
+
+        // Reverse futility pruning. Near the leaves, a static score far enough above beta is unlikely to be lost.
+        if (futilityPruning && canPrune && layersLeft < FUTILITY_MARGINS.length
+                && staticScore - REVERSE_FUTILITY_MARGIN * layersLeft >= beta) {
+            return staticScore;
+        }
+
+        // Null move pruning. If passing the turn and searching shallower still beats beta, a real move would too.
+        // Passing is not allowed twice in a row.
+        if (nullMovePruning && canPrune && !verifying && layersLeft >= NULL_MOVE_MIN_DEPTH && staticScore >= beta
+                && ply > 0 && line[ply - 1] != PackedMove.NONE) {
+            int score = searchNullMove(layersLeft, ply, beta);
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+
+                // Passing is not a legal move, so a mate found after it proves nothing.
+                return score >= MATE_SCORE ? beta : score;
+            }
+        }
+
+        // Futility pruning. Near the leaves, quiet moves can't raise a static score far enough below alpha.
+        boolean futile = futilityPruning && canPrune && layersLeft < FUTILITY_MARGINS.length
+                && Math.abs(alpha) < MATE_SCORE && staticScore + FUTILITY_MARGINS[layersLeft] <= alpha;
+
+        // Try the best move of the previous search of this position first, then captures, then the quiet moves
+        // that caused cutoffs before. Each group of moves is only generated once the previous one is used up.
+        int previousMove = ply > 0 ? line[ply - 1] : PackedMove.NONE;
+        MovePicker picker = pickers[ply];
+        picker.init(position, entry != 0 ? TranspositionTable.getMove(entry) : TranspositionTable.NO_MOVE, ply, previousMove, false);
+
+        int alphaStart = alpha; // The window the position was searched with, used to tell the bound of the score.
+        int bestScore = -INFINITE;
+        int bestPositionMove = PackedMove.NONE; // The best move found in this position.
+
+        int moveCount = 0; // The number of moves picked so far.
+        int move;
+        while ((move = picker.next()) != PackedMove.NONE) {
+            int i = moveCount++;
+            line[ply] = move;
+
+            position.makeMove(move);
+
+            // Captures, promotions and checks are always searched. Other moves may be pruned or reduced.
+            boolean quiet = !PackedMove.isCapture(move) && !PackedMove.isPromotion(move)
+                    && !position.inCheck(position.isWhiteToMove());
+            if (futile && quiet && i > 0) {
+                position.undoMove();
+                continue;
+            }
+
+            // Late move reductions. Quiet moves late in the order are searched shallower, and again at the full
+            // depth if they beat alpha.
+            int reduction = 0;
+            if (lateMoveReductions && quiet && !inCheck && i >= LMR_MIN_INDEX && layersLeft >= LMR_MIN_DEPTH) {
+                reduction = i >= LMR_MIN_INDEX * 2 && layersLeft >= LMR_MIN_DEPTH * 2 ? 2 : 1;
+            }
+
+            int score = searchMove(i, layersLeft - 1, ply + 1, alpha, beta, reduction);
+            position.undoMove();
+
+            if (stopped) {
+                return bestScore;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestPositionMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        ordering.addCutoff(move, ply, layersLeft, previousMove);
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Without a legal move the game is over.
+        if (moveCount == 0) {
+            return getTerminalScore(inCheck, ply);
+        }
+
+        store(hash, bestPositionMove, layersLeft, ply, bestScore, alphaStart, beta);
+
+        return bestScore;
+    }
+
+    /**
+     * Searches the position after a move. Every move but the first is searched with a null window first, and only
+     * searched again with the full window if it turns out better than alpha.
+     *
+     * @param index      the index of the move in the order of its position.
+     * @param layersLeft the number of layers left after the move.
+     * @param ply        the number of moves played since the root, including the move.
+     * @param alpha      the score the player that moved is already guaranteed.
+     * @param beta       the score the enemy is already guaranteed, negated.
+     * @param reduction  the number of layers to leave out of the null window search. It is searched again without the
+     *                   reduction if it beats alpha.
+     * @return the score of the move for the player that moved.
+     */
+    private int searchMove(int index, int layersLeft, int ply, int alpha, int beta, int reduction) {
+        if (index == 0) {
+            return -calculate(layersLeft, ply, -beta, -alpha);
+        }
+
+        int score = -calculate(layersLeft - reduction, ply, -alpha - 1, -alpha);
+        if (reduction > 0 && score > alpha && !stopped) {
+            score = -calculate(layersLeft, ply, -alpha - 1, -alpha);
+        }
+        if (score > alpha && score < beta && !stopped) {
+            score = -calculate(layersLeft, ply, -beta, -alpha);
+        }
+        return score;
+    }
+
+    /**
+     * Passes the turn and searches the position shallower with a null window around beta. With few pieces left the
+     * player to move may be in zugzwang, where passing is better than any move, so a result that beats beta is
+     * verified by a shallower search of the real moves.
+     *
+     * @param layersLeft the number of layers left in the position.
+     * @param ply        the number of moves played since the root.
+     * @param beta       the score the enemy is already guaranteed, negated.
+     * @return a score that beats beta if the position can be pruned.
+     */
+    private int searchNullMove(int layersLeft, int ply, int beta) {
+        int reducedLayers = layersLeft - 1 - NULL_MOVE_REDUCTION;
+
+        line[ply] = PackedMove.NONE;
+        position.makeNullMove();
+        int score = -calculate(reducedLayers, ply + 1, -beta, -beta + 1);
+        position.undoNullMove();
+
+        if (score < beta || stopped || !isZugzwangProne(position.isWhiteToMove())) {
+            return score;
+        }
+
+        verifying = true;
+        score = calculate(reducedLayers, ply, beta - 1, beta);
+        verifying = false;
+        return score;
+    }
+
+    /**
+     * @param isWhite whether to look at the white or black pieces.
+     * @return whether the player has no more than a minor piece besides the king and pawns, so a null move can't be
+     * trusted.
+     */
+    private boolean isZugzwangProne(boolean isWhite) {
+        if ((position.getPieces(Piece.QUEEN, isWhite) | position.getPieces(Piece.ROOK, isWhite)) != 0) {
+            return false;
+        }
+        return Long.bitCount(position.getPieces(Piece.KNIGHT, isWhite) | position.getPieces(Piece.BISHOP, isWhite)) <= 1;
+    }
+
+    /**
+     * Searches only the captures and promotions of a position until it is quiet. The player to move may always stand
+     * pat instead, taking the static score, unless they are in check, in which case every move is searched.
+     *
+     * @param ply   the number of moves played since the root.
+     * @param alpha the score the player to move is already guaranteed.
+     * @param beta  the score the enemy is already guaranteed, negated.
+     * @return the score of the position for the player to move.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        if (checkStop()) {
+            return 0;
+        }
+
+        if (ply >= MAX_PLY - 1 || position.getKingSquare(true) < 0 || position.getKingSquare(false) < 0) {
+            return evaluator.evaluate(position, position.isWhiteToMove());
+        }
+
+        boolean inCheck = position.inCheck(position.isWhiteToMove());
+
+        int bestScore;
+        if (inCheck) {
+            bestScore = -INFINITE;
+        } else {
+
+            // Stand pat. The player to move doesn't have to capture, so the static score bounds the position.
+            bestScore = evaluator.evaluate(position, position.isWhiteToMove());
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        // Captures are picked by MVV-LVA, leaving out those that lose material by static exchange evaluation. Evasions
+        // also use the killers and history of the ply.
+        MovePicker picker = pickers[ply];
+        picker.init(position, TranspositionTable.NO_MOVE, ply, ply > 0 ? line[ply - 1] : PackedMove.NONE, !inCheck);
+
+        for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+            line[ply] = move;
+            position.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            position.undoMove();
+
+            if (stopped) {
+                return bestScore;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        // In check without an evasion, the game is over.
+        if (bestScore == -INFINITE) {
+            return getTerminalScore(true, ply);
+        }
+
+        return bestScore;
+    }
+
+    /**
+     * @param inCheck whether the player to move, who has no legal moves, is in check.
+     * @param ply     the number of moves played since the root.
+     * @return the score of a position without legal moves for the player to move: a loss when checkmated, sooner
+     * losses being worse, and a draw when stalemated.
+     */
+    private static int getTerminalScore(boolean inCheck, int ply) {
+        return inCheck ? -Evaluator.WIN + ply : DRAW;
+    }
+
+    /**
+     * Counts a visited position, and every so often checks whether the time budget ran out or another searcher
+     * stopped the search.
+     *
+     * @return whether the search has to stop.
+     */
+    private boolean checkStop() {
+        if ((++nodes & 255) == 0 && (stop.get() || System.currentTimeMillis() >= deadline)) {
+            stopped = true;
+            stop.set(true);
+        }
+        return stopped;
+    }
+
+    /**
+     * Stores the result of searching a position in the transposition table.
+     *
+     * @param hash       the hash of the position.
+     * @param move       the best move found in the position. PackedMove.NONE if none.
+     * @param layersLeft the number of layers the position was searched with.
+     * @param ply        the number of moves played since the root.
+     * @param score      the score of the position.
+     * @param alpha      the alpha the position was searched with.
+     * @param beta       the beta the position was searched with.
+     */
+    private void store(long hash, int move, int layersLeft, int ply, int score, int alpha, int beta) {
+        int bound;
+        if (score <= alpha) {
+            bound = TranspositionTable.UPPER;
+        } else if (score >= beta) {
+            bound = TranspositionTable.LOWER;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+
+        int packedMove = move == PackedMove.NONE ? TranspositionTable.NO_MOVE : TranspositionTable.encodeMove(PackedMove.getSource(move), PackedMove.getDestination(move));
+        table.store(hash, packedMove, layersLeft, bound, toTableScore(score, ply));
+    }
+
+    /**
+     * Mate scores count the plies from the root, but the same position can be reached at another ply or in a later
+     * search. The table holds them as the plies from the position instead.
+     *
+     * @param score the score of the position, with mates counted from the root.
+     * @param ply   the number of moves played since the root.
+     * @return the score to store in the table.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE_SCORE) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * @param score the score stored in the table, with mates counted from the position.
+     * @param ply   the number of moves played since the root.
+     * @return the score of the position, with mates counted from the root.
+     */
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE_SCORE) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Sorts the moves from the highest to the lowest score. Moves with equal scores keep their order.
+     *
+     * @param moves  the moves to sort.
+     * @param scores the score of each move. Sorted along with the moves.
+     * @param count  the number of moves.
+     */
+    private static void sortByScore(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Moves the given move to the front of the moves, if they contain it. The moves before it keep their order.
+     *
+     * @param moves      the moves to reorder.
+     * @param count      the number of moves.
+     * @param packedMove the move to look for, encoded with TranspositionTable.encodeMove().
+     */
+    private static void moveToFront(int[] moves, int count, int packedMove) {
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (PackedMove.getSource(move) == TranspositionTable.getSource(packedMove)
+                    && PackedMove.getDestination(move) == TranspositionTable.getDestination(packedMove)) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param moves the moves of the board.
+     * @param move  the packed move to look for.
+     * @return the move of the board with the same source and destination as the packed move.
+     */
+    private static Move toMove(ArrayList<Move> moves, int move) {
+        for (Move candidate : moves) {
+            if (candidate.getSource().getSquare() == PackedMove.getSource(move)
+                    && candidate.getDestination().getSquare() == PackedMove.getDestination(move)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+}
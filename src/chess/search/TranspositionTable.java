@@ -0,0 +1,165 @@
+package chess.search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, keyed by the Zobrist hash of the position. Each entry is stored as a
+ * key and a packed data word in a primitive array, so the table never allocates after it is created.
+ * <p>
+ * The table can be shared between search threads without locking. The key is stored XORed with the data, so an
+ * entry torn by two threads writing it at once no longer matches its hash and reads as a miss.
+ */
+public class TranspositionTable {
+
+    // The bound types of a stored score.
+    public static final int EXACT = 1; // The score is the exact value of the position.
+    public static final int LOWER = 2; // The search failed high, the value is at least the score.
+    public static final int UPPER = 3; // The search failed low, the value is at most the score.
+
+    public static final int NO_MOVE = 0; // Stored when the entry has no best move.
+
+    private static final int ENTRY_SIZE = 16; // Bytes used by each entry.
+
+    private long[] entries; // Pairs of the hash XOR data, then the packed move, depth, bound, age and score of each slot.
+    private int mask; // The number of slots minus one. The number of slots is a power of two.
+
+    private int age; // The age of the current search. Entries from older searches are replaced first.
+
+    /**
+     * Creates a new transposition table.
+     *
+     * @param sizeMb the memory the table may use, in megabytes. Rounded down to a power of two number of entries.
+     */
+    public TranspositionTable(int sizeMb) {
+        long slots = Long.highestOneBit(Math.max(1, (long) sizeMb * 1024 * 1024 / ENTRY_SIZE));
+        slots = Math.min(slots, 1 << 29);
+
+        entries = new long[(int) slots * 2];
+        mask = (int) slots - 1;
+    }
+
+    /**
+     * Looks up a position in the table.
+     *
+     * @param hash the hash of the position.
+     * @return the packed entry of the position. 0 if the position is not stored.
+     */
+    public long probe(long hash) {
+        int index = ((int) hash & mask) << 1;
+        long data = entries[index + 1];
+        return (entries[index] ^ data) == hash ? data : 0;
+    }
+
+    /**
+     * Stores a search result. An entry of another position is only replaced if it is from an older search or was
+     * searched less deeply.
+     *
+     * @param hash  the hash of the position.
+     * @param move  the best move found, encoded with encodeMove(). NO_MOVE if none.
+     * @param depth the depth the position was searched to.
+     * @param bound the bound type of the score. (EXACT, LOWER or UPPER)
+     * @param score the score, in hundredths of a pawn.
+     */
+    public void store(long hash, int move, int depth, int bound, int score) {
+        int index = ((int) hash & mask) << 1;
+        long current = entries[index + 1];
+        boolean samePosition = (entries[index] ^ current) == hash;
+
+        if (current != 0 && !samePosition && getAge(current) == age && getDepth(current) > depth) {
+            return;
+        }
+
+        // Keep the old best move if the new search did not find one.
+        if (move == NO_MOVE && samePosition) {
+            move = getMove(current);
+        }
+
+        long data = (move & 0xFFFL)
+                | ((long) (depth & 0xFF) << 12)
+                | ((long) bound << 20)
+                | ((long) (age & 0xFF) << 22)
+                | ((long) score << 32);
+
+        entries[index] = hash ^ data;
+        entries[index + 1] = data;
+    }
+
+    /**
+     * Starts a new search. Entries from earlier searches become the first to be replaced.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Removes all the entries from the table.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * @param src  the source square of the move.
+     * @param dest the destination square of the move.
+     * @return the move packed into the 12 bits used by the table.
+     */
+    public static int encodeMove(int src, int dest) {
+        return src << 6 | dest;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the source square of the move.
+     */
+    public static int getSource(int move) {
+        return move >>> 6;
+    }
+
+    /**
+     * @param move the packed move.
+     * @return the destination square of the move.
+     */
+    public static int getDestination(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @param entry the packed entry.
+     * @return the best move of the entry, encoded with encodeMove().
+     */
+    public static int getMove(long entry) {
+        return (int) (entry & 0xFFF);
+    }
+
+    /**
+     * @param entry the packed entry.
+     * @return the depth the entry was searched to.
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 12) & 0xFF;
+    }
+
+    /**
+     * @param entry the packed entry.
+     * @return the bound type of the score of the entry.
+     */
+    public static int getBound(long entry) {
+        return (int) (entry >>> 20) & 3;
+    }
+
+    /**
+     * @param entry the packed entry.
+     * @return the score of the entry, in hundredths of a pawn.
+     */
+    public static int getScore(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    /**
+     * @param entry the packed entry.
+     * @return the age of the search the entry was stored in.
+     */
+    private static int getAge(long entry) {
+        return (int) (entry >>> 22) & 0xFF;
+    }
+}